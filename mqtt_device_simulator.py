@@ -8,10 +8,16 @@ import json
 import random
 import string
 import time
+import uuid
 from datetime import datetime, timedelta, timezone
 
 import paho.mqtt.client as mqtt
 
+try:
+    import cbor2
+except ImportError:  # só necessário com --format cbor
+    cbor2 = None
+
 
 DEFAULT_TOPICS = [
     "recommendations/topic",
@@ -43,6 +49,7 @@ def generate_payload(student_id: int | None = None) -> dict:
     category = random.choice(CATEGORIES)
 
     return {
+        "eventId": str(uuid.uuid4()),
         "studentId": student_id or random.randint(1000, 2000),
         "deviceId": random_device_id(),
         "category": category,
@@ -64,6 +71,16 @@ def generate_payload(student_id: int | None = None) -> dict:
     }
 
 
+def encode_payload(payload: dict, payload_format: str) -> bytes | str:
+    if payload_format == "json":
+        return json.dumps(payload, ensure_ascii=False)
+    # CBOR: datas como epoch em segundos, que o Jackson lê direto para OffsetDateTime
+    compact = dict(payload)
+    for field in ("startTime", "endTime"):
+        compact[field] = int(datetime.fromisoformat(payload[field]).timestamp())
+    return cbor2.dumps(compact)
+
+
 def main():
     parser = argparse.ArgumentParser(description="Simulador de dispositivo MQTT")
     parser.add_argument("--broker", default="localhost", help="Host do broker MQTT")
@@ -73,7 +90,11 @@ def main():
     parser.add_argument("--student-id", type=int, help="ID fixo do estudante (opcional)")
     parser.add_argument("--random-topic", action="store_true", help="Publicar em tópicos aleatórios")
     parser.add_argument("--count", type=int, default=0, help="Quantidade de mensagens (0 = infinito)")
+    parser.add_argument("--format", choices=["json", "cbor"], default="json",
+                        help="Codificação do payload (cbor publica em <tópico>/cbor)")
     args = parser.parse_args()
+    if args.format == "cbor" and cbor2 is None:
+        parser.error("--format cbor requer o pacote cbor2 (pip install cbor2)")
 
     client = mqtt.Client()
     client.connect(args.broker, args.port, 60)
@@ -83,6 +104,7 @@ def main():
     print(f"Broker: {args.broker}:{args.port}")
     print(f"Tópico base: {args.topic}")
     print(f"Intervalo: {args.interval}s")
+    print(f"Formato: {args.format}")
     print(f"Quantidade: {'infinito' if args.count == 0 else args.count}")
     print("=" * 60)
 
@@ -91,13 +113,15 @@ def main():
         while True:
             payload = generate_payload(args.student_id)
             topic = random.choice(DEFAULT_TOPICS) if args.random_topic else args.topic
-            message = json.dumps(payload, ensure_ascii=False)
+            if args.format == "cbor":
+                topic += "/cbor"
+            message = encode_payload(payload, args.format)
 
             client.publish(topic, message, qos=1)
             sent += 1
 
             print(f"[{datetime.now().isoformat()}] #{sent} → {topic}")
-            print(message)
+            print(message if args.format == "json" else f"{len(message)} bytes CBOR: {payload}")
             print("-" * 40)
 
             if 0 < args.count == sent:
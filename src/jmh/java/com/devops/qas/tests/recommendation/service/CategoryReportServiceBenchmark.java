@@ -0,0 +1,85 @@
+package com.devops.qas.tests.recommendation.service;
+
+import com.devops.qas.tests.messaging.service.RabbitMQService;
+import com.devops.qas.tests.recommendation.dto.CategoryReportDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Montagem dos relatórios de categoria sobre {@code recommendations} linhas
+ * registradas no {@link CategoryStatsRegistry}. A publicação no RabbitMQ é
+ * substituída por um stub que só guarda a última mensagem.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CategoryReportServiceBenchmark {
+
+    private static final int CATEGORIES = 50;
+    private static final int COURSES = 2_000;
+    private static final int STUDENTS = 100_000;
+    private static final String EMAIL = "coordenacao@universidade.edu.br";
+
+    @Param({"10000", "100000", "1000000"})
+    public int recommendations;
+
+    private CategoryReportService service;
+    private Object lastMessage;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        CategoryStatsRegistry registry = new CategoryStatsRegistry(null);
+        Random random = new Random(42);
+        for (int i = 0; i < recommendations; i++) {
+            registry.recordInsert(
+                    "Categoria " + random.nextInt(CATEGORIES),
+                    (long) random.nextInt(STUDENTS),
+                    "Curso " + random.nextInt(COURSES),
+                    random.nextInt(3) == 0,
+                    random.nextInt(5) == 0);
+        }
+        RabbitMQService rabbitMQService = new RabbitMQService(null, null) {
+            @Override
+            public void sendMessage(String exchange, String routingKey, Object message) {
+                lastMessage = message;
+            }
+        };
+        service = new CategoryReportService(registry, rabbitMQService, new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Object singleCategoryReport() {
+        service.generateAndSendCategoryReport("Categoria 7", EMAIL);
+        return lastMessage;
+    }
+
+    @Benchmark
+    public Object partialMatchCategoryReport() {
+        // "Categoria 1" casa com 1, 10..19: agrega 11 categorias
+        service.generateAndSendCategoryReport("Categoria 1", EMAIL);
+        return lastMessage;
+    }
+
+    @Benchmark
+    public List<CategoryReportDTO> allCategoriesReports() {
+        return service.buildAllCategoriesReports(EMAIL);
+    }
+}
@@ -0,0 +1,65 @@
+package com.devops.qas.tests.recommendation.service;
+
+import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
+import com.devops.qas.tests.recommendation.repository.RecommendationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validação de email do {@link RecommendationService#sendRecommendationEmail}.
+ * As recomendações do aluno já estão no cache, então o custo medido é o da regex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecommendationServiceBenchmark {
+
+    private static final long STUDENT_ID = 1L;
+
+    @Param({"aluno@universidade.edu.br", "nome.sobrenome+tag@sub.dominio.com.br", "sem-arroba.dominio.com"})
+    public String email;
+
+    private RecommendationService service;
+
+    @Setup
+    public void setup() {
+        List<Recommendation> recommendations = List.of(Recommendation.builder()
+                .studentId(STUDENT_ID)
+                .courseName("Kubernetes Hands-on")
+                .category("DevOps")
+                .build());
+        RecommendationRepository repository = (RecommendationRepository) Proxy.newProxyInstance(
+                RecommendationRepository.class.getClassLoader(),
+                new Class<?>[]{RecommendationRepository.class},
+                (proxy, method, args) -> {
+                    if ("findByStudentId".equals(method.getName())) {
+                        return recommendations;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        service = new RecommendationService(repository, null, new ConcurrentMapCacheManager("recommendations"), null);
+        service.getRecommendations(STUDENT_ID);
+    }
+
+    @Benchmark
+    public boolean sendRecommendationEmail() {
+        return service.sendRecommendationEmail(STUDENT_ID, email);
+    }
+}
@@ -0,0 +1,111 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminho de ingestão MQTT (parse do JSON + mapeamento para entidade) e conversão
+ * de volta para DTO, com e sem metadata (ou com metadata gravada mas não pedida).
+ * O pipeline é substituído por um que só guarda o último evento, para medir apenas
+ * o serviço. A alocação por evento sai em {@code gc.alloc.rate.norm} (profiler
+ * {@code gc}, ligado por padrão no profile).
+ * O mesmo evento em CBOR compara a decodificação binária com a JSON; os tamanhos
+ * dos dois payloads são impressos no setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TelemetryEventServiceBenchmark {
+
+    private static final String PAYLOAD = """
+            {"studentId": 1042, "deviceId": "iot-a1b2c3", "category": "DevOps",
+             "courseName": "Kubernetes Hands-on", "durationMinutes": 45, "engagementScore": 0.87,
+             "startTime": "2025-01-01T10:00:00-03:00", "endTime": "2025-01-01T10:45:00-03:00",
+             "metadata": {"focusLevel": 0.92, "interruptions": 2, "notes": "Estudando para certificação"}}
+            """;
+    private static final byte[] PAYLOAD_BYTES = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+    private byte[] cborPayload;
+    private TelemetryEventService service;
+    private StudySessionEvent lastSubmitted;
+    private StudySessionEvent withMetadata;
+    private StudySessionEvent withoutMetadata;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(null, null, null, new SimpleMeterRegistry(), null, 1, 1, 1, 0) {
+            @Override
+            public boolean submit(StudySessionEvent event) {
+                lastSubmitted = event;
+                return true;
+            }
+        };
+        // Janela zero: o mesmo payload repetido não é tratado como reentrega, mas o custo da chave entra na medida
+        service = new TelemetryEventService(null, null, pipeline,
+                new TelemetryDeduplicator(new SimpleMeterRegistry(), 0, 1),
+                event -> { }, objectMapper);
+
+        StudySessionEventDTO dto = objectMapper.readValue(PAYLOAD, StudySessionEventDTO.class);
+        cborPayload = objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(dto);
+        System.out.printf("payload JSON: %d bytes, CBOR: %d bytes%n", PAYLOAD_BYTES.length, cborPayload.length);
+        withMetadata = service.toEntity(dto);
+        dto.setMetadata(null);
+        withoutMetadata = service.toEntity(dto);
+    }
+
+    @Benchmark
+    public StudySessionEvent processIncomingPayload() {
+        service.processIncomingPayload(PAYLOAD);
+        return lastSubmitted;
+    }
+
+    /** Caminho real do listener: bytes entregues pelo Paho, sem String intermediária. */
+    @Benchmark
+    public StudySessionEvent processIncomingPayloadBytes() {
+        service.processIncomingPayload(PAYLOAD_BYTES);
+        return lastSubmitted;
+    }
+
+    @Benchmark
+    public StudySessionEvent processIncomingPayloadCbor() {
+        service.processIncomingPayload(cborPayload, TelemetryPayloadFormat.CBOR);
+        return lastSubmitted;
+    }
+
+    @Benchmark
+    public StudySessionEventDTO toDTOWithMetadata() {
+        return service.toDTO(withMetadata);
+    }
+
+    @Benchmark
+    public StudySessionEventDTO toDTOWithoutMetadata() {
+        return service.toDTO(withoutMetadata);
+    }
+
+    /** Listagem com {@code includeMetadata=false}: o JSON gravado não é lido. */
+    @Benchmark
+    public StudySessionEventDTO toDTOSkippingMetadata() {
+        return service.toDTO(withMetadata, false);
+    }
+}
@@ -1,7 +1,9 @@
 package com.devops.qas.tests.ai.config;
 
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
+import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -34,6 +36,16 @@ public class LangChainConfig {
                 .build();
     }
 
+    @Bean
+    public StreamingChatLanguageModel streamingChatLanguageModel() {
+        return OpenAiStreamingChatModel.builder()
+                .apiKey(apiKey)
+                .modelName(modelName)
+                .temperature(temperature)
+                .timeout(parseTimeout(timeout))
+                .build();
+    }
+
     private Duration parseTimeout(String timeoutStr) {
         if (timeoutStr.endsWith("s")) {
             int seconds = Integer.parseInt(timeoutStr.substring(0, timeoutStr.length() - 1));
@@ -1,9 +1,18 @@
 package com.devops.qas.tests.ai.controller;
 
+import com.devops.qas.tests.ai.dto.AIBatchRunDTO;
+import com.devops.qas.tests.ai.dto.AICacheStatsDTO;
+import com.devops.qas.tests.ai.service.AIAsyncService;
+import com.devops.qas.tests.ai.service.AIRecommendationBatchService;
 import com.devops.qas.tests.ai.service.AIService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/ai")
@@ -11,6 +20,8 @@ import org.springframework.web.bind.annotation.*;
 public class AIController {
 
     private final AIService aiService;
+    private final AIAsyncService aiAsyncService;
+    private final AIRecommendationBatchService batchService;
 
     @PostMapping("/recommendation")
     public ResponseEntity<String> generateRecommendation(@RequestBody String studentProfile) {
@@ -29,5 +40,43 @@ public class AIController {
         String analysis = aiService.analyzeRecommendationFeedback(feedback);
         return ResponseEntity.ok(analysis);
     }
-}
 
+    @PostMapping("/async/recommendation")
+    public CompletableFuture<ResponseEntity<String>> generateRecommendationAsync(@RequestBody String studentProfile) {
+        return aiAsyncService.generateRecommendation(studentProfile).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/async/chat")
+    public CompletableFuture<ResponseEntity<String>> chatAsync(@RequestBody String message) {
+        return aiAsyncService.chat(message).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping("/async/analyze-feedback")
+    public CompletableFuture<ResponseEntity<String>> analyzeFeedbackAsync(@RequestBody String feedback) {
+        return aiAsyncService.analyzeRecommendationFeedback(feedback).thenApply(ResponseEntity::ok);
+    }
+
+    @PostMapping(value = "/stream/chat", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChat(@RequestBody String message) {
+        return aiAsyncService.streamChat(message);
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<AICacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(aiService.getCacheStats());
+    }
+
+    @PostMapping("/batch/run")
+    public ResponseEntity<Void> runBatch() {
+        return batchService.trigger()
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    @GetMapping("/batch/runs/latest")
+    public ResponseEntity<AIBatchRunDTO> getLatestBatchRun() {
+        return batchService.getLatestRun()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,72 @@
+package com.devops.qas.tests.ai.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Entity
+@Table(name = "ai_batch_runs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIBatchRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status;
+
+    @Column(name = "started_at", nullable = false)
+    private OffsetDateTime startedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+
+    @Column(name = "finished_at")
+    private OffsetDateTime finishedAt;
+
+    @Column(name = "last_student_id", nullable = false)
+    private long lastStudentId;
+
+    @Column(name = "students_processed", nullable = false)
+    private long studentsProcessed;
+
+    @Column(name = "recommendations_created", nullable = false)
+    private long recommendationsCreated;
+
+    @Column(name = "prompts_sent", nullable = false)
+    private long promptsSent;
+
+    @Column(name = "prompts_failed", nullable = false)
+    private long promptsFailed;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private long completionTokens;
+
+    @Column(name = "failed_attempts", nullable = false)
+    private int failedAttempts;
+
+    @Column(name = "students_skipped", nullable = false)
+    private long studentsSkipped;
+
+    @Column(name = "processing_millis", nullable = false)
+    private long processingMillis;
+
+    public enum Status {
+        RUNNING,
+        INTERRUPTED,
+        FAILED,
+        COMPLETED
+    }
+}
@@ -0,0 +1,31 @@
+package com.devops.qas.tests.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIBatchRunDTO {
+    private Long id;
+    private String status;
+    private boolean active;
+    private OffsetDateTime startedAt;
+    private OffsetDateTime updatedAt;
+    private OffsetDateTime finishedAt;
+    private long lastStudentId;
+    private long studentsProcessed;
+    private long recommendationsCreated;
+    private long promptsSent;
+    private long promptsFailed;
+    private long promptTokens;
+    private long completionTokens;
+    private int failedAttempts;
+    private long studentsSkipped;
+    private double studentsPerMinute;
+}
@@ -0,0 +1,47 @@
+package com.devops.qas.tests.ai.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resumo do aluno enviado ao modelo: cursos já recomendados (com as flags) e a
+ * atividade de estudo recente por categoria.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StudentProfile {
+    private Long studentId;
+    @Builder.Default
+    private List<Course> courses = new ArrayList<>();
+    @Builder.Default
+    private List<CategoryActivity> activity = new ArrayList<>();
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Course {
+        private String courseName;
+        private String category;
+        private boolean saved;
+        private boolean useful;
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryActivity {
+        private String category;
+        private long sessions;
+        private long totalMinutes;
+        private Double averageEngagement;
+    }
+}
@@ -0,0 +1,12 @@
+package com.devops.qas.tests.ai.repository;
+
+import com.devops.qas.tests.ai.domain.entity.AIBatchRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AIBatchRunRepository extends JpaRepository<AIBatchRun, Long> {
+    Optional<AIBatchRun> findFirstByOrderByIdDesc();
+}
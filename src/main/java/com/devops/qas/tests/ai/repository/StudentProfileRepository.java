@@ -0,0 +1,106 @@
+package com.devops.qas.tests.ai.repository;
+
+import com.devops.qas.tests.ai.dto.StudentProfile;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Leitura dos dados usados para montar os perfis do job de recomendações em lote.
+ * Os alunos são percorridos por keyset em student_id, a partir do checkpoint.
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class StudentProfileRepository {
+
+    private static final String RECOMMENDATION_STUDENTS =
+            "SELECT DISTINCT student_id FROM recommendations WHERE student_id > ? ORDER BY student_id LIMIT ?";
+    private static final String TELEMETRY_STUDENTS =
+            "SELECT DISTINCT student_id FROM study_session_events WHERE student_id > ? ORDER BY student_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Próximos {@code limit} alunos com recomendações ou telemetria, em ordem de id.
+     * Cada tabela é lida pelo seu índice; o resultado é cortado no menor último id
+     * das listas que vieram cheias, para não pular alunos da outra tabela.
+     */
+    public List<Long> findStudentIdsAfter(long afterStudentId, int limit) {
+        List<Long> fromRecommendations = jdbcTemplate.queryForList(RECOMMENDATION_STUDENTS, Long.class, afterStudentId, limit);
+        List<Long> fromTelemetry = jdbcTemplate.queryForList(TELEMETRY_STUDENTS, Long.class, afterStudentId, limit);
+
+        long boundary = Long.MAX_VALUE;
+        if (fromRecommendations.size() == limit) {
+            boundary = fromRecommendations.get(limit - 1);
+        }
+        if (fromTelemetry.size() == limit) {
+            boundary = Math.min(boundary, fromTelemetry.get(limit - 1));
+        }
+
+        TreeSet<Long> merged = new TreeSet<>(fromRecommendations);
+        merged.addAll(fromTelemetry);
+        List<Long> studentIds = new ArrayList<>(limit);
+        for (Long studentId : merged.headSet(boundary, true)) {
+            if (studentIds.size() == limit) {
+                break;
+            }
+            studentIds.add(studentId);
+        }
+        return studentIds;
+    }
+
+    public List<StudentProfile> loadProfiles(List<Long> studentIds, OffsetDateTime activitySince) {
+        if (studentIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, StudentProfile> profiles = new LinkedHashMap<>();
+        for (Long studentId : studentIds) {
+            profiles.put(studentId, StudentProfile.builder().studentId(studentId).build());
+        }
+        String placeholders = String.join(", ", Collections.nCopies(studentIds.size(), "?"));
+
+        jdbcTemplate.query(
+                "SELECT student_id, course_name, category, is_saved, is_useful FROM recommendations "
+                        + "WHERE student_id IN (" + placeholders + ") ORDER BY student_id, course_name",
+                rs -> {
+                    profiles.get(rs.getLong("student_id")).getCourses().add(StudentProfile.Course.builder()
+                            .courseName(rs.getString("course_name"))
+                            .category(rs.getString("category"))
+                            .saved(rs.getBoolean("is_saved"))
+                            .useful(rs.getBoolean("is_useful"))
+                            .build());
+                },
+                studentIds.toArray());
+
+        List<Object> args = new ArrayList<>(studentIds);
+        args.add(activitySince);
+        jdbcTemplate.query(
+                "SELECT student_id, category, COUNT(*) AS sessions, "
+                        + "COALESCE(SUM(duration_minutes), 0) AS total_minutes, AVG(engagement_score) AS avg_engagement "
+                        + "FROM study_session_events "
+                        + "WHERE student_id IN (" + placeholders + ") AND received_at >= ? "
+                        + "GROUP BY student_id, category ORDER BY student_id, sessions DESC",
+                rs -> {
+                    double engagement = rs.getDouble("avg_engagement");
+                    profiles.get(rs.getLong("student_id")).getActivity().add(StudentProfile.CategoryActivity.builder()
+                            .category(rs.getString("category"))
+                            .sessions(rs.getLong("sessions"))
+                            .totalMinutes(rs.getLong("total_minutes"))
+                            .averageEngagement(rs.wasNull() ? null : engagement)
+                            .build());
+                },
+                args.toArray());
+
+        return new ArrayList<>(profiles.values());
+    }
+}
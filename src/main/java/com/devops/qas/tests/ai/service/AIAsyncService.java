@@ -0,0 +1,155 @@
+package com.devops.qas.tests.ai.service;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.StreamingResponseHandler;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Variantes não bloqueantes do {@link AIService}: as chamadas ao modelo rodam num
+ * pool próprio, fora das threads do Tomcat, e um semáforo limita quantas podem
+ * estar em andamento (inclusive streams). Sem vaga, a requisição é recusada
+ * imediatamente com {@link AIOverloadedException} (HTTP 429).
+ */
+@Service
+@Slf4j
+public class AIAsyncService {
+
+    private final AIService aiService;
+    private final StreamingChatLanguageModel streamingChatLanguageModel;
+    private final int maxConcurrent;
+    private final long streamTimeoutMs;
+    private final Semaphore permits;
+
+    private ThreadPoolTaskExecutor executor;
+
+    public AIAsyncService(
+            AIService aiService,
+            StreamingChatLanguageModel streamingChatLanguageModel,
+            @Value("${ai.async.max-concurrent:8}") int maxConcurrent,
+            @Value("${ai.stream.timeout-ms:90000}") long streamTimeoutMs) {
+        this.aiService = aiService;
+        this.streamingChatLanguageModel = streamingChatLanguageModel;
+        this.maxConcurrent = maxConcurrent;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Uma thread por vaga do semáforo; a fila só cobre o instante entre a liberação
+        // da vaga e a volta da thread ao pool
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrent);
+        executor.setMaxPoolSize(maxConcurrent);
+        executor.setQueueCapacity(maxConcurrent);
+        executor.setThreadNamePrefix("ai-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<String> generateRecommendation(String studentProfile) {
+        return submit(() -> aiService.generateRecommendation(studentProfile));
+    }
+
+    public CompletableFuture<String> chat(String userMessage) {
+        return submit(() -> aiService.chat(userMessage));
+    }
+
+    public CompletableFuture<String> analyzeRecommendationFeedback(String feedback) {
+        return submit(() -> aiService.analyzeRecommendationFeedback(feedback));
+    }
+
+    /**
+     * Repassa os tokens do modelo como eventos SSE {@code token} e encerra com um
+     * evento {@code done}. A vaga fica ocupada até o modelo terminar, mesmo que o
+     * cliente desconecte antes.
+     */
+    public SseEmitter streamChat(String userMessage) {
+        acquire();
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+
+        try {
+            streamingChatLanguageModel.generate(userMessage, new StreamingResponseHandler<AiMessage>() {
+                @Override
+                public void onNext(String token) {
+                    try {
+                        emitter.send(SseEmitter.event().name("token").data(token));
+                    } catch (IOException | IllegalStateException e) {
+                        // Cliente desconectou; o restante dos tokens é descartado
+                        log.debug("Falha ao enviar token SSE: {}", e.getMessage());
+                    }
+                }
+
+                @Override
+                public void onComplete(Response<AiMessage> response) {
+                    try {
+                        emitter.send(SseEmitter.event().name("done").data(""));
+                        emitter.complete();
+                    } catch (IOException | IllegalStateException e) {
+                        log.debug("Falha ao encerrar stream SSE: {}", e.getMessage());
+                    }
+                    release.run();
+                }
+
+                @Override
+                public void onError(Throwable error) {
+                    log.error("Erro no streaming da IA: {}", error.getMessage(), error);
+                    emitter.completeWithError(error);
+                    release.run();
+                }
+            });
+        } catch (RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        return emitter;
+    }
+
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    private CompletableFuture<String> submit(Supplier<String> call) {
+        acquire();
+        try {
+            return CompletableFuture.supplyAsync(call, executor)
+                    .whenComplete((result, error) -> permits.release());
+        } catch (TaskRejectedException e) {
+            permits.release();
+            throw new AIOverloadedException("Pool de chamadas à IA indisponível");
+        }
+    }
+
+    private void acquire() {
+        if (!permits.tryAcquire()) {
+            log.warn("Limite de {} chamadas simultâneas à IA atingido, requisição recusada", maxConcurrent);
+            throw new AIOverloadedException("Limite de chamadas simultâneas à IA atingido");
+        }
+    }
+}
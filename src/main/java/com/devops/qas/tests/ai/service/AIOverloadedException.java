@@ -0,0 +1,16 @@
+package com.devops.qas.tests.ai.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Todas as vagas de chamadas simultâneas à IA estão ocupadas; a requisição é
+ * recusada na hora em vez de esperar por uma thread.
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS, reason = "Limite de chamadas simultâneas à IA atingido")
+public class AIOverloadedException extends RuntimeException {
+
+    public AIOverloadedException(String message) {
+        super(message);
+    }
+}
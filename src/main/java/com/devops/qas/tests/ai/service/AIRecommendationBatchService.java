@@ -0,0 +1,422 @@
+package com.devops.qas.tests.ai.service;
+
+import com.devops.qas.tests.ai.domain.entity.AIBatchRun;
+import com.devops.qas.tests.ai.dto.AIBatchRunDTO;
+import com.devops.qas.tests.ai.dto.StudentProfile;
+import com.devops.qas.tests.ai.repository.AIBatchRunRepository;
+import com.devops.qas.tests.ai.repository.StudentProfileRepository;
+import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
+import com.devops.qas.tests.recommendation.service.RecommendationService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Job noturno que gera recomendações com IA para todos os alunos. Os perfis são
+ * montados a partir das recomendações e da telemetria recente, vários alunos vão
+ * no mesmo prompt e os prompts de uma rodada rodam em paralelo, espaçados pelo
+ * limite de requisições por minuto. Ao fim de cada rodada o último aluno
+ * processado é gravado em {@code ai_batch_runs}; uma execução não concluída é
+ * retomada desse ponto. Alunos cujo prompt falha em {@code max-attempts} execuções
+ * seguidas são pulados, para não travar o job.
+ */
+@Service
+@Slf4j
+public class AIRecommendationBatchService {
+
+    private static final int MAX_COURSE_NAME_LENGTH = 255;
+    private static final Pattern RECOMMENDATION_LINE =
+            Pattern.compile("^\\s*(?:[-*]\\s*)?(\\d+)\\s*\\|\\s*([^|]+?)\\s*\\|\\s*([^|]*?)\\s*$", Pattern.MULTILINE);
+
+    private final ChatLanguageModel chatLanguageModel;
+    private final StudentProfileRepository profileRepository;
+    private final AIBatchRunRepository runRepository;
+    private final RecommendationService recommendationService;
+    private final boolean enabled;
+    private final int studentsPerPrompt;
+    private final int recommendationsPerStudent;
+    private final int parallelism;
+    private final int activityDays;
+    private final int maxAttempts;
+    private final RequestRateLimiter rateLimiter;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ThreadPoolTaskExecutor promptExecutor;
+    private final SimpleAsyncTaskExecutor runExecutor = new SimpleAsyncTaskExecutor("ai-batch-run-");
+
+    public AIRecommendationBatchService(
+            ChatLanguageModel chatLanguageModel,
+            StudentProfileRepository profileRepository,
+            AIBatchRunRepository runRepository,
+            RecommendationService recommendationService,
+            @Value("${ai.batch.enabled:false}") boolean enabled,
+            @Value("${ai.batch.students-per-prompt:20}") int studentsPerPrompt,
+            @Value("${ai.batch.recommendations-per-student:3}") int recommendationsPerStudent,
+            @Value("${ai.batch.parallelism:4}") int parallelism,
+            @Value("${ai.batch.requests-per-minute:60}") int requestsPerMinute,
+            @Value("${ai.batch.activity-days:90}") int activityDays,
+            @Value("${ai.batch.max-attempts:3}") int maxAttempts) {
+        this.chatLanguageModel = chatLanguageModel;
+        this.profileRepository = profileRepository;
+        this.runRepository = runRepository;
+        this.recommendationService = recommendationService;
+        this.enabled = enabled;
+        this.studentsPerPrompt = studentsPerPrompt;
+        this.recommendationsPerStudent = recommendationsPerStudent;
+        this.parallelism = parallelism;
+        this.activityDays = activityDays;
+        this.maxAttempts = maxAttempts;
+        this.rateLimiter = new RequestRateLimiter(requestsPerMinute);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Cada rodada submete no máximo "parallelism" prompts, então a fila nunca enche
+        promptExecutor = new ThreadPoolTaskExecutor();
+        promptExecutor.setCorePoolSize(parallelism);
+        promptExecutor.setMaxPoolSize(parallelism);
+        promptExecutor.setQueueCapacity(parallelism);
+        promptExecutor.setThreadNamePrefix("ai-batch-");
+        promptExecutor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        promptExecutor.shutdown();
+    }
+
+    @Scheduled(cron = "${ai.batch.cron:0 0 2 * * *}")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Job de recomendações em lote ainda em execução, disparo agendado ignorado");
+            return;
+        }
+        // Fora da thread única do agendador, para não atrasar os demais @Scheduled
+        runExecutor.execute(this::runGuarded);
+    }
+
+    /**
+     * Dispara o job em segundo plano.
+     *
+     * @return false se já houver uma execução em andamento
+     */
+    public boolean trigger() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        runExecutor.execute(this::runGuarded);
+        return true;
+    }
+
+    public Optional<AIBatchRunDTO> getLatestRun() {
+        return runRepository.findFirstByOrderByIdDesc().map(this::toDTO);
+    }
+
+    private void runGuarded() {
+        try {
+            run();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    void run() {
+        AIBatchRun run = resumeOrCreate();
+        try {
+            int waveSize = studentsPerPrompt * parallelism;
+            List<Long> studentIds;
+            while (!(studentIds = profileRepository.findStudentIdsAfter(run.getLastStudentId(), waveSize)).isEmpty()) {
+                if (!processWave(run, studentIds)) {
+                    run.setStatus(AIBatchRun.Status.FAILED);
+                    run.setUpdatedAt(OffsetDateTime.now());
+                    runRepository.save(run);
+                    log.error("Job de recomendações em lote {} falhou: prompts sem resposta; retomará após o aluno {}",
+                            run.getId(), run.getLastStudentId());
+                    return;
+                }
+            }
+            run.setStatus(AIBatchRun.Status.COMPLETED);
+            run.setFinishedAt(OffsetDateTime.now());
+            run.setUpdatedAt(run.getFinishedAt());
+            runRepository.save(run);
+            log.info("Job de recomendações em lote {} concluído: {} alunos, {} recomendações, {} tokens",
+                    run.getId(), run.getStudentsProcessed(), run.getRecommendationsCreated(),
+                    run.getPromptTokens() + run.getCompletionTokens());
+        } catch (RuntimeException e) {
+            run.setStatus(AIBatchRun.Status.INTERRUPTED);
+            run.setUpdatedAt(OffsetDateTime.now());
+            runRepository.save(run);
+            log.error("Job de recomendações em lote {} interrompido após o aluno {}: {}",
+                    run.getId(), run.getLastStudentId(), e.getMessage(), e);
+        }
+    }
+
+    private AIBatchRun resumeOrCreate() {
+        OffsetDateTime now = OffsetDateTime.now();
+        Optional<AIBatchRun> latest = runRepository.findFirstByOrderByIdDesc()
+                .filter(run -> run.getStatus() != AIBatchRun.Status.COMPLETED);
+        if (latest.isPresent()) {
+            AIBatchRun run = latest.get();
+            log.info("Retomando job de recomendações em lote {} a partir do aluno {}", run.getId(), run.getLastStudentId());
+            run.setStatus(AIBatchRun.Status.RUNNING);
+            run.setUpdatedAt(now);
+            return runRepository.save(run);
+        }
+        return runRepository.save(AIBatchRun.builder()
+                .status(AIBatchRun.Status.RUNNING)
+                .startedAt(now)
+                .updatedAt(now)
+                .build());
+    }
+
+    /**
+     * Processa uma onda de alunos e grava o checkpoint. Se algum prompt falhar, o
+     * checkpoint para antes do primeiro aluno sem resposta, para que ele seja refeito;
+     * na tentativa {@code maxAttempts} os alunos dos prompts que falharam são pulados.
+     *
+     * @return false se a onda deve ser refeita numa próxima execução
+     */
+    private boolean processWave(AIBatchRun run, List<Long> studentIds) {
+        long waveStart = System.nanoTime();
+        List<StudentProfile> profiles =
+                profileRepository.loadProfiles(studentIds, OffsetDateTime.now().minusDays(activityDays));
+
+        List<List<StudentProfile>> chunks = new ArrayList<>();
+        List<CompletableFuture<PromptResult>> futures = new ArrayList<>();
+        for (int from = 0; from < profiles.size(); from += studentsPerPrompt) {
+            List<StudentProfile> chunk = profiles.subList(from, Math.min(from + studentsPerPrompt, profiles.size()));
+            chunks.add(chunk);
+            futures.add(CompletableFuture.supplyAsync(() -> generateForChunk(chunk), promptExecutor));
+        }
+
+        List<Recommendation> recommendations = new ArrayList<>();
+        long promptTokens = 0;
+        long completionTokens = 0;
+        int failed = 0;
+        List<Long> failedStudentIds = new ArrayList<>();
+        long firstFailedStudentId = Long.MAX_VALUE;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                PromptResult result = futures.get(i).join();
+                recommendations.addAll(result.recommendations());
+                promptTokens += result.promptTokens();
+                completionTokens += result.completionTokens();
+            } catch (CompletionException e) {
+                failed++;
+                for (StudentProfile profile : chunks.get(i)) {
+                    failedStudentIds.add(profile.getStudentId());
+                    firstFailedStudentId = Math.min(firstFailedStudentId, profile.getStudentId());
+                }
+                log.warn("Falha em prompt do job de recomendações em lote: {}", e.getCause().getMessage());
+            }
+        }
+        int created = recommendations.isEmpty() ? 0 : recommendationService.addGeneratedRecommendations(recommendations);
+
+        // Os ids vêm em ordem crescente; o checkpoint só avança até o último aluno antes da primeira falha
+        long checkpoint = studentIds.get(studentIds.size() - 1);
+        long skipped = 0;
+        boolean retry = false;
+        if (failed > 0) {
+            long retryAfter = Math.max(run.getLastStudentId(), firstFailedStudentId - 1);
+            // Só conta como nova tentativa se o checkpoint não andou: a falha é no primeiro aluno pendente
+            int attempts = retryAfter == run.getLastStudentId() ? run.getFailedAttempts() + 1 : 1;
+            if (attempts < maxAttempts) {
+                checkpoint = retryAfter;
+                run.setFailedAttempts(attempts);
+                retry = true;
+            } else {
+                skipped = failedStudentIds.size();
+                run.setFailedAttempts(0);
+                log.error("Job de recomendações em lote {}: alunos {} pulados após {} tentativas com falha",
+                        run.getId(), failedStudentIds, attempts);
+            }
+        } else {
+            run.setFailedAttempts(0);
+        }
+        long processed = 0;
+        for (Long studentId : studentIds) {
+            if (studentId <= checkpoint) {
+                processed++;
+            }
+        }
+        processed -= skipped;
+        long elapsedNanos = System.nanoTime() - waveStart;
+        run.setLastStudentId(checkpoint);
+        run.setStudentsProcessed(run.getStudentsProcessed() + processed);
+        run.setStudentsSkipped(run.getStudentsSkipped() + skipped);
+        run.setProcessingMillis(run.getProcessingMillis() + elapsedNanos / 1_000_000);
+        run.setRecommendationsCreated(run.getRecommendationsCreated() + created);
+        run.setPromptsSent(run.getPromptsSent() + futures.size());
+        run.setPromptsFailed(run.getPromptsFailed() + failed);
+        run.setPromptTokens(run.getPromptTokens() + promptTokens);
+        run.setCompletionTokens(run.getCompletionTokens() + completionTokens);
+        run.setUpdatedAt(OffsetDateTime.now());
+        runRepository.save(run);
+
+        double minutes = elapsedNanos / 60_000_000_000.0;
+        log.info("Lote até o aluno {}: {} alunos, {} prompts ({} falhas), {} recomendações, tokens {} entrada / {} saída, {} alunos/min",
+                run.getLastStudentId(), processed, futures.size(), failed, created,
+                promptTokens, completionTokens, String.format(Locale.ROOT, "%.1f", processed / minutes));
+        return !retry;
+    }
+
+    private PromptResult generateForChunk(List<StudentProfile> chunk) {
+        try {
+            rateLimiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Job de recomendações em lote interrompido", e);
+        }
+        // Chamada direta ao modelo: o cache de respostas não se aplica e a contagem de tokens é necessária
+        Response<AiMessage> response = chatLanguageModel.generate(List.of(UserMessage.from(buildPrompt(chunk))));
+        TokenUsage usage = response.tokenUsage();
+        return new PromptResult(
+                parseRecommendations(response.content().text(), chunk),
+                usage == null || usage.inputTokenCount() == null ? 0 : usage.inputTokenCount(),
+                usage == null || usage.outputTokenCount() == null ? 0 : usage.outputTokenCount());
+    }
+
+    String buildPrompt(List<StudentProfile> chunk) {
+        StringBuilder prompt = new StringBuilder()
+                .append("Você é um orientador acadêmico. Para cada aluno abaixo, sugira até ")
+                .append(recommendationsPerStudent)
+                .append(" cursos que ele ainda não possui, considerando os cursos atuais e a atividade recente de estudo. ")
+                .append("Responda somente com uma linha por curso, no formato: id_do_aluno|nome do curso|categoria\n\n");
+        for (StudentProfile profile : chunk) {
+            prompt.append("Aluno ").append(profile.getStudentId()).append(": cursos atuais: ");
+            if (profile.getCourses().isEmpty()) {
+                prompt.append("nenhum");
+            } else {
+                prompt.append(profile.getCourses().stream()
+                        .map(course -> course.getCourseName()
+                                + " (" + (course.getCategory() == null ? "sem categoria" : course.getCategory())
+                                + (course.isSaved() ? ", salvo" : "")
+                                + (course.isUseful() ? ", útil" : "") + ")")
+                        .collect(Collectors.joining(", ")));
+            }
+            prompt.append("; atividade recente: ");
+            if (profile.getActivity().isEmpty()) {
+                prompt.append("nenhuma");
+            } else {
+                prompt.append(profile.getActivity().stream()
+                        .map(activity -> activity.getCategory() + " " + activity.getSessions() + " sessões/"
+                                + activity.getTotalMinutes() + " min"
+                                + (activity.getAverageEngagement() == null ? ""
+                                : String.format(Locale.ROOT, ", engajamento %.2f", activity.getAverageEngagement())))
+                        .collect(Collectors.joining("; ")));
+            }
+            prompt.append('\n');
+        }
+        return prompt.toString();
+    }
+
+    /**
+     * Converte as linhas {@code aluno|curso|categoria} da resposta. Linhas fora do
+     * formato, alunos que não estão no prompt, cursos que o aluno já tem e o que
+     * passar do limite por aluno são descartados.
+     */
+    List<Recommendation> parseRecommendations(String text, List<StudentProfile> chunk) {
+        Map<Long, StudentProfile> profiles = chunk.stream()
+                .collect(Collectors.toMap(StudentProfile::getStudentId, Function.identity()));
+        Map<Long, Set<String>> seenCourses = new HashMap<>();
+        Map<Long, Integer> acceptedCounts = new HashMap<>();
+        List<Recommendation> recommendations = new ArrayList<>();
+        if (text == null) {
+            return recommendations;
+        }
+
+        Matcher matcher = RECOMMENDATION_LINE.matcher(text);
+        while (matcher.find()) {
+            long studentId;
+            try {
+                studentId = Long.parseLong(matcher.group(1));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            StudentProfile profile = profiles.get(studentId);
+            String courseName = matcher.group(2);
+            String category = matcher.group(3);
+            if (profile == null || courseName.length() > MAX_COURSE_NAME_LENGTH
+                    || category.length() > MAX_COURSE_NAME_LENGTH) {
+                continue;
+            }
+
+            Set<String> seen = seenCourses.computeIfAbsent(studentId, id -> existingCourses(profile));
+            int accepted = acceptedCounts.getOrDefault(studentId, 0);
+            if (accepted >= recommendationsPerStudent || !seen.add(courseName.toLowerCase(Locale.ROOT))) {
+                continue;
+            }
+            acceptedCounts.put(studentId, accepted + 1);
+            recommendations.add(Recommendation.builder()
+                    .studentId(studentId)
+                    .courseName(courseName)
+                    .category(category.isEmpty() ? null : category)
+                    .build());
+        }
+        return recommendations;
+    }
+
+    private static Set<String> existingCourses(StudentProfile profile) {
+        Set<String> courses = new HashSet<>();
+        for (StudentProfile.Course course : profile.getCourses()) {
+            courses.add(course.getCourseName().toLowerCase(Locale.ROOT));
+        }
+        return courses;
+    }
+
+    private AIBatchRunDTO toDTO(AIBatchRun run) {
+        // Tempo gasto nas rodadas, não desde startedAt: uma execução retomada não conta a pausa
+        double minutes = run.getProcessingMillis() / 60_000.0;
+        return AIBatchRunDTO.builder()
+                .id(run.getId())
+                .status(run.getStatus().name())
+                .active(running.get() && run.getStatus() == AIBatchRun.Status.RUNNING)
+                .startedAt(run.getStartedAt())
+                .updatedAt(run.getUpdatedAt())
+                .finishedAt(run.getFinishedAt())
+                .lastStudentId(run.getLastStudentId())
+                .studentsProcessed(run.getStudentsProcessed())
+                .recommendationsCreated(run.getRecommendationsCreated())
+                .promptsSent(run.getPromptsSent())
+                .promptsFailed(run.getPromptsFailed())
+                .promptTokens(run.getPromptTokens())
+                .completionTokens(run.getCompletionTokens())
+                .failedAttempts(run.getFailedAttempts())
+                .studentsSkipped(run.getStudentsSkipped())
+                .studentsPerMinute(minutes > 0 ? run.getStudentsProcessed() / minutes : 0)
+                .build();
+    }
+
+    private record PromptResult(List<Recommendation> recommendations, long promptTokens, long completionTokens) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.devops.qas.tests.ai.service;
+
+import com.devops.qas.tests.ai.dto.AICacheStatsDTO;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Cache das respostas do modelo, chaveado por modelo + temperatura + prompt
+ * normalizado. Requisições idênticas simultâneas compartilham a mesma chamada
+ * (single-flight): a primeira executa o modelo na própria thread e as demais
+ * aguardam o mesmo future. Falhas não ficam no cache. As estatísticas também são
+ * exportadas como métricas do cache {@code ai.responses}.
+ */
+@Component
+@Slf4j
+public class AIResponseCache implements MeterBinder {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final AsyncCache<String, String> cache;
+    private final String modelName;
+    private final Double temperature;
+    private final LongAdder coalesced = new LongAdder();
+
+    public AIResponseCache(
+            @Value("${langchain4j.open-ai.chat-model.model-name:gpt-3.5-turbo}") String modelName,
+            @Value("${langchain4j.open-ai.chat-model.temperature:0.7}") Double temperature,
+            @Value("${ai.cache.maximum-size:1000}") long maximumSize,
+            @Value("${ai.cache.ttl-minutes:60}") long ttlMinutes) {
+        this.modelName = modelName;
+        this.temperature = temperature;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .buildAsync();
+    }
+
+    public String getOrGenerate(String prompt, Supplier<String> generator) {
+        CompletableFuture<String> loader = new CompletableFuture<>();
+        CompletableFuture<String> result = cache.get(keyFor(prompt), (key, executor) -> loader);
+
+        if (result == loader) {
+            try {
+                loader.complete(generator.get());
+            } catch (RuntimeException | Error e) {
+                loader.completeExceptionally(e);
+            }
+        } else if (!result.isDone()) {
+            coalesced.increment();
+            log.debug("Aguardando resposta em andamento para prompt idêntico");
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache.synchronous(), "ai.responses");
+        FunctionCounter.builder("ai.responses.coalesced", coalesced, LongAdder::sum).register(registry);
+    }
+
+    public AICacheStatsDTO getStats() {
+        CacheStats stats = cache.synchronous().stats();
+        return AICacheStatsDTO.builder()
+                .size(cache.synchronous().estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .coalescedCount(coalesced.sum())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+
+    String keyFor(String prompt) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(prompt, Normalizer.Form.NFC).strip()).replaceAll(" ");
+        return sha256(modelName + '\u0000' + temperature + '\u0000' + normalized);
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.devops.qas.tests.ai.service;
 
+import com.devops.qas.tests.ai.dto.AICacheStatsDTO;
 import dev.langchain4j.model.chat.ChatLanguageModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -11,6 +14,8 @@ import org.springframework.stereotype.Service;
 public class AIService {
 
     private final ChatLanguageModel chatLanguageModel;
+    private final AIResponseCache responseCache;
+    private final MeterRegistry meterRegistry;
 
     public String generateRecommendation(String studentProfile) {
         log.info("Gerando recomendação com IA para perfil: {}", studentProfile);
@@ -18,14 +23,14 @@ public class AIService {
                 "Com base no perfil do estudante: %s, gere uma recomendação personalizada de curso. " +
                 "Seja conciso e objetivo.", studentProfile
         );
-        String response = chatLanguageModel.generate(prompt);
+        String response = generate("recommendation", prompt);
         log.info("Resposta da IA: {}", response);
         return response;
     }
 
     public String chat(String userMessage) {
         log.info("Processando mensagem do usuário: {}", userMessage);
-        String response = chatLanguageModel.generate(userMessage);
+        String response = generate("chat", userMessage);
         log.info("Resposta da IA: {}", response);
         return response;
     }
@@ -35,9 +40,30 @@ public class AIService {
         String prompt = String.format(
                 "Analise o seguinte feedback sobre uma recomendação e forneça insights: %s", feedback
         );
-        String response = chatLanguageModel.generate(prompt);
+        String response = generate("analyze-feedback", prompt);
         log.info("Análise da IA: {}", response);
         return response;
     }
-}
 
+    public AICacheStatsDTO getCacheStats() {
+        return responseCache.getStats();
+    }
+
+    /**
+     * Só as chamadas que chegam ao modelo (falhas de cache) entram no timer
+     * {@code ai.model.requests}; os acertos aparecem nas métricas do cache.
+     */
+    private String generate(String operation, String prompt) {
+        return responseCache.getOrGenerate(prompt, () -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "error";
+            try {
+                String response = chatLanguageModel.generate(prompt);
+                outcome = "success";
+                return response;
+            } finally {
+                sample.stop(meterRegistry.timer("ai.model.requests", "operation", operation, "outcome", outcome));
+            }
+        });
+    }
+}
@@ -0,0 +1,31 @@
+package com.devops.qas.tests.ai.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Espaça as chamadas ao modelo uniformemente: cada chamada reserva o próximo
+ * horário livre e dorme até ele. Com limite zero ou negativo não há espera.
+ */
+final class RequestRateLimiter {
+
+    private final long intervalNanos;
+    private long nextSlot;
+
+    RequestRateLimiter(int requestsPerMinute) {
+        this.intervalNanos = requestsPerMinute > 0 ? TimeUnit.MINUTES.toNanos(1) / requestsPerMinute : 0;
+        this.nextSlot = System.nanoTime();
+    }
+
+    void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long slot = Math.max(now, nextSlot);
+            nextSlot = slot + intervalNanos;
+            waitNanos = slot - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.devops.qas.tests.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Habilita {@code @Timed} nos repositórios JDBC de todos os módulos. Os
+ * repositórios Spring Data já são medidos pelo Actuator em
+ * {@code spring.data.repository.invocations}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -1,5 +1,6 @@
 package com.devops.qas.tests.messaging.config;
 
+import com.devops.qas.tests.telemetry.service.TelemetryPayloadFormat;
 import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -13,6 +14,11 @@ import org.springframework.integration.mqtt.outbound.MqttPahoMessageHandler;
 import org.springframework.integration.mqtt.support.DefaultPahoMessageConverter;
 import org.springframework.messaging.MessageChannel;
 import org.springframework.messaging.MessageHandler;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
 @Configuration
 public class MqttConfig {
@@ -29,6 +35,20 @@ public class MqttConfig {
     @Value("${mqtt.qos}")
     private int qos;
 
+    @Value("${mqtt.inbound.topics:${mqtt.topic.recommendations}}")
+    private List<String> inboundTopics;
+
+    @Value("${mqtt.inbound.shared-group:}")
+    private String sharedGroup;
+
+    // Sufixo por processo: réplicas com a mesma configuração não derrubam a sessão uma da outra
+    private final String instanceId = UUID.randomUUID().toString().substring(0, 8);
+
+    @Bean
+    static MqttInboundAdaptersRegistrar mqttInboundAdaptersRegistrar() {
+        return new MqttInboundAdaptersRegistrar();
+    }
+
     @Bean
     public MqttPahoClientFactory mqttClientFactory() {
         DefaultMqttPahoClientFactory factory = new DefaultMqttPahoClientFactory();
@@ -52,22 +72,44 @@ public class MqttConfig {
     @Bean
     @ServiceActivator(inputChannel = "mqttOutputChannel")
     public MessageHandler mqttOutbound() {
-        MqttPahoMessageHandler messageHandler = new MqttPahoMessageHandler(clientId, mqttClientFactory());
+        MqttPahoMessageHandler messageHandler = new MqttPahoMessageHandler(
+                clientId + "-" + instanceId, mqttClientFactory());
         messageHandler.setAsync(true);
         messageHandler.setDefaultTopic(recommendationsTopic);
         messageHandler.setDefaultQos(qos);
         return messageHandler;
     }
 
-    @Bean
-    public MqttPahoMessageDrivenChannelAdapter mqttInbound() {
+    /** Chamado pelo {@link MqttInboundAdaptersRegistrar} para cada adapter de entrada. */
+    MqttPahoMessageDrivenChannelAdapter createInboundAdapter(int index) {
         MqttPahoMessageDrivenChannelAdapter adapter = new MqttPahoMessageDrivenChannelAdapter(
-                clientId + "-inbound", mqttClientFactory(), recommendationsTopic);
+                clientId + "-inbound-" + instanceId + "-" + index, mqttClientFactory(),
+                subscriptions(inboundTopics, sharedGroup));
         adapter.setCompletionTimeout(5000);
-        adapter.setConverter(new DefaultPahoMessageConverter());
+        // Payload entregue como byte[]: o listener desserializa direto dos bytes, sem String intermediária
+        DefaultPahoMessageConverter converter = new DefaultPahoMessageConverter();
+        converter.setPayloadAsBytes(true);
+        adapter.setConverter(converter);
         adapter.setQos(qos);
         adapter.setOutputChannel(mqttInputChannel());
         return adapter;
     }
+
+    /**
+     * JSON em cada tópico e CBOR no mesmo tópico com sufixo /cbor. Com grupo, as
+     * assinaturas viram {@code $share/<grupo>/<tópico>} e o broker distribui as
+     * mensagens entre todos os adapters do grupo, em todas as réplicas.
+     */
+    static String[] subscriptions(List<String> topics, String sharedGroup) {
+        String prefix = StringUtils.hasText(sharedGroup) ? "$share/" + sharedGroup.trim() + "/" : "";
+        List<String> subscriptions = new ArrayList<>();
+        for (String topic : topics) {
+            if (StringUtils.hasText(topic)) {
+                subscriptions.add(prefix + topic.trim());
+                subscriptions.add(prefix + topic.trim() + TelemetryPayloadFormat.CBOR_TOPIC_SUFFIX);
+            }
+        }
+        return subscriptions.toArray(String[]::new);
+    }
 }
 
@@ -0,0 +1,50 @@
+package com.devops.qas.tests.messaging.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.integration.mqtt.inbound.MqttPahoMessageDrivenChannelAdapter;
+import org.springframework.util.StringUtils;
+
+/**
+ * Registra {@code mqtt.inbound.concurrency} adapters de entrada ({@code mqttInbound-0..N-1}),
+ * cada um com seu cliente Paho e sua thread de callback. Sem {@code mqtt.inbound.shared-group}
+ * o broker entregaria cada mensagem a todos os adapters, então só um é criado.
+ */
+@Slf4j
+class MqttInboundAdaptersRegistrar implements BeanDefinitionRegistryPostProcessor, EnvironmentAware {
+
+    static final String BEAN_NAME_PREFIX = "mqttInbound-";
+
+    private Environment environment;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void postProcessBeanDefinitionRegistry(BeanDefinitionRegistry registry) {
+        int concurrency = Math.max(1, environment.getProperty("mqtt.inbound.concurrency", Integer.class, 1));
+        if (concurrency > 1 && !StringUtils.hasText(environment.getProperty("mqtt.inbound.shared-group"))) {
+            log.warn("mqtt.inbound.concurrency={} ignorado sem mqtt.inbound.shared-group; usando 1 adapter", concurrency);
+            concurrency = 1;
+        }
+        for (int i = 0; i < concurrency; i++) {
+            int index = i;
+            registry.registerBeanDefinition(BEAN_NAME_PREFIX + index, new RootBeanDefinition(
+                    MqttPahoMessageDrivenChannelAdapter.class,
+                    () -> beanFactory.getBean(MqttConfig.class).createInboundAdapter(index)));
+        }
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+}
@@ -1,25 +1,74 @@
 package com.devops.qas.tests.messaging.listener;
 
 import com.devops.qas.tests.telemetry.service.TelemetryEventService;
-import lombok.RequiredArgsConstructor;
+import com.devops.qas.tests.telemetry.service.TelemetryPayloadFormat;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.integration.annotation.ServiceActivator;
 import org.springframework.messaging.Message;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class MqttListener {
 
     private final TelemetryEventService telemetryEventService;
+    private final MeterRegistry meterRegistry;
+    // Medidores resolvidos uma vez por tópico e formato; por mensagem só há increment/record
+    private final Map<String, TopicMeters> topicMeters = new ConcurrentHashMap<>();
+    private final Map<TelemetryPayloadFormat, DistributionSummary> payloadBytes =
+            new EnumMap<>(TelemetryPayloadFormat.class);
+
+    public MqttListener(TelemetryEventService telemetryEventService, MeterRegistry meterRegistry) {
+        this.telemetryEventService = telemetryEventService;
+        this.meterRegistry = meterRegistry;
+        for (TelemetryPayloadFormat format : TelemetryPayloadFormat.values()) {
+            payloadBytes.put(format, meterRegistry.summary("mqtt.messages.payload.bytes",
+                    "format", format.name().toLowerCase(Locale.ROOT)));
+        }
+    }
 
     @ServiceActivator(inputChannel = "mqttInputChannel")
     public void handleMqttMessage(Message<?> message) {
-        String payload = message.getPayload().toString();
+        // O adapter entrega byte[] (setPayloadAsBytes); outras origens do canal podem mandar String
+        byte[] payload = message.getPayload() instanceof byte[] bytes
+                ? bytes
+                : message.getPayload().toString().getBytes(StandardCharsets.UTF_8);
         String topic = (String) message.getHeaders().get("mqtt_receivedTopic");
-        log.info("Mensagem MQTT recebida do tópico {}: {}", topic, payload);
-        telemetryEventService.processIncomingPayload(payload);
+        if (log.isDebugEnabled()) {
+            log.debug("Mensagem MQTT recebida do tópico {} ({} bytes)", topic, payload.length);
+        }
+        TopicMeters meters = topicMeters.computeIfAbsent(topic != null ? topic : "unknown", this::registerTopic);
+        TelemetryPayloadFormat format = TelemetryPayloadFormat.fromTopic(topic);
+        meters.received().increment();
+        payloadBytes.get(format).record(payload.length);
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean parsed = telemetryEventService.processIncomingPayload(payload, format);
+        sample.stop(parsed ? meters.handledSuccess() : meters.handledParseFailure());
+        if (!parsed) {
+            meters.parseFailures().increment();
+        }
     }
-}
 
+    private TopicMeters registerTopic(String topicTag) {
+        return new TopicMeters(
+                meterRegistry.counter("mqtt.messages.received", "topic", topicTag),
+                meterRegistry.counter("mqtt.messages.parse.failures", "topic", topicTag),
+                meterRegistry.timer("mqtt.messages.handle", "topic", topicTag, "outcome", "success"),
+                meterRegistry.timer("mqtt.messages.handle", "topic", topicTag, "outcome", "parse_failure"));
+    }
+
+    private record TopicMeters(Counter received, Counter parseFailures, Timer handledSuccess,
+                               Timer handledParseFailure) {
+    }
+}
@@ -1,42 +1,76 @@
 package com.devops.qas.tests.messaging.service;
 
 import com.devops.qas.tests.messaging.config.RabbitMQConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RabbitMQService {
 
     private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
 
     public void sendMessage(Object message) {
-        log.info("Enviando mensagem para RabbitMQ: {}", message);
-        rabbitTemplate.convertAndSend(
+        log.debug("Enviando mensagem para RabbitMQ: {}", message);
+        timed("rabbitmq.publish", RabbitMQConfig.RECOMMENDATIONS_EXCHANGE, () -> rabbitTemplate.convertAndSend(
                 RabbitMQConfig.RECOMMENDATIONS_EXCHANGE,
                 RabbitMQConfig.RECOMMENDATIONS_ROUTING_KEY,
                 message
-        );
+        ));
         log.info("Mensagem enviada com sucesso!");
     }
 
     public void sendMessage(String routingKey, Object message) {
-        log.info("Enviando mensagem para RabbitMQ com routing key {}: {}", routingKey, message);
-        rabbitTemplate.convertAndSend(
+        log.debug("Enviando mensagem para RabbitMQ com routing key {}: {}", routingKey, message);
+        timed("rabbitmq.publish", RabbitMQConfig.RECOMMENDATIONS_EXCHANGE, () -> rabbitTemplate.convertAndSend(
                 RabbitMQConfig.RECOMMENDATIONS_EXCHANGE,
                 routingKey,
                 message
-        );
+        ));
         log.info("Mensagem enviada com sucesso!");
     }
 
     public void sendMessage(String exchange, String routingKey, Object message) {
-        log.info("Enviando mensagem para RabbitMQ - Exchange: {}, Routing Key: {}, Message: {}", exchange, routingKey, message);
-        rabbitTemplate.convertAndSend(exchange, routingKey, message);
-        log.info("Mensagem enviada com sucesso!");
+        log.debug("Enviando mensagem para RabbitMQ - Exchange: {}, Routing Key: {}, Message: {}", exchange, routingKey, message);
+        timed("rabbitmq.publish", exchange, () -> rabbitTemplate.convertAndSend(exchange, routingKey, message));
+        log.info("Mensagem enviada com sucesso! Exchange: {}, Routing Key: {}", exchange, routingKey);
     }
-}
 
+    /**
+     * Publica as mensagens num único canal e aguarda as confirmações do broker uma
+     * vez para o lote inteiro, em vez de uma ida e volta por mensagem.
+     * Requer {@code spring.rabbitmq.publisher-confirm-type=simple}.
+     *
+     * @throws org.springframework.amqp.AmqpException se alguma mensagem for recusada
+     *         ou as confirmações não chegarem dentro do prazo
+     */
+    public void sendBatch(String exchange, String routingKey, List<?> messages, long confirmTimeoutMs) {
+        timed("rabbitmq.publish.batch", exchange, () -> rabbitTemplate.invoke(operations -> {
+            for (Object message : messages) {
+                operations.convertAndSend(exchange, routingKey, message);
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        }));
+        log.info("Lote de {} mensagens confirmado - Exchange: {}, Routing Key: {}", messages.size(), exchange, routingKey);
+    }
+
+    private void timed(String meterName, String exchange, Runnable publish) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            publish.run();
+            outcome = "success";
+        } finally {
+            sample.stop(meterRegistry.timer(meterName, "exchange", exchange, "outcome", outcome));
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.devops.qas.tests.recommendation.controller;
 
+import com.devops.qas.tests.recommendation.dto.ReportJobDTO;
 import com.devops.qas.tests.recommendation.service.CategoryReportService;
+import com.devops.qas.tests.recommendation.service.ReportJobService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
 
 @RestController
 @RequestMapping("/api/reports")
@@ -11,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 public class CategoryReportController {
 
     private final CategoryReportService reportService;
+    private final ReportJobService reportJobService;
 
     @PostMapping("/category/{category}")
     public ResponseEntity<String> generateCategoryReport(
@@ -21,10 +29,25 @@ public class CategoryReportController {
     }
 
     @PostMapping("/all-categories")
-    public ResponseEntity<String> generateAllCategoriesReport(
+    public ResponseEntity<ReportJobDTO> generateAllCategoriesReport(
             @RequestParam(defaultValue = "pedrogamerp@gmail.com") String email) {
-        reportService.generateAndSendAllCategoriesReport(email);
-        return ResponseEntity.ok("Relatórios de todas as categorias enviados para processamento de email!");
+        ReportJobDTO job;
+        try {
+            job = reportJobService.submitAllCategoriesReport(email);
+        } catch (TaskRejectedException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Muitos relatórios em processamento, tente novamente em instantes", e);
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable String jobId) {
+        return reportJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 }
 
@@ -1,5 +1,6 @@
 package com.devops.qas.tests.recommendation.controller;
 
+import com.devops.qas.tests.recommendation.dto.CacheStatsDTO;
 import com.devops.qas.tests.recommendation.dto.RecommendationDTO;
 import com.devops.qas.tests.recommendation.service.RecommendationService;
 import lombok.RequiredArgsConstructor;
@@ -39,5 +40,9 @@ public class RecommendationController {
     public ResponseEntity<Boolean> markAsUseful(@PathVariable Long studentId, @RequestParam String courseName) {
         return ResponseEntity.ok(service.markRecommendationAsUseful(studentId, courseName));
     }
-}
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(service.getCacheStats());
+    }
+}
@@ -7,7 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
-@Table(name = "recommendations")
+@Table(name = "recommendations", uniqueConstraints = @UniqueConstraint(
+        name = "uk_recommendations_student_course", columnNames = {"student_id", "course_name"}))
 @Data
 @Builder
 @NoArgsConstructor
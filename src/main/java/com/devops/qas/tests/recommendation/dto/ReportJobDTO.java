@@ -0,0 +1,34 @@
+package com.devops.qas.tests.recommendation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private String jobId;
+    private Status status;
+    private String recipientEmail;
+    private int totalReports;
+    private int publishedReports;
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private Long queuedMs;
+    private Long buildMs;
+    private Long publishMs;
+    private String error;
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,9 @@
+package com.devops.qas.tests.recommendation.repository;
+
+public interface CategoryStatsView {
+    String getCategory();
+    Long getTotalRecommendations();
+    Long getTotalStudents();
+    Long getSavedCount();
+    Long getUsefulCount();
+}
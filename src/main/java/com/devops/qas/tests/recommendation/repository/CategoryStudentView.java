@@ -0,0 +1,6 @@
+package com.devops.qas.tests.recommendation.repository;
+
+public interface CategoryStudentView {
+    String getCategory();
+    Long getStudentId();
+}
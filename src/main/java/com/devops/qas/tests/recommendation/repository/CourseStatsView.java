@@ -0,0 +1,9 @@
+package com.devops.qas.tests.recommendation.repository;
+
+public interface CourseStatsView {
+    String getCategory();
+    String getCourseName();
+    Long getTotalCount();
+    Long getSavedCount();
+    Long getUsefulCount();
+}
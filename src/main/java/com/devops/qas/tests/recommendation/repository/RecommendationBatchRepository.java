@@ -0,0 +1,65 @@
+package com.devops.qas.tests.recommendation.repository;
+
+import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inserção em lote de recomendações geradas, ignorando pares (aluno, curso) que
+ * já existem: as flags de linhas existentes nunca são sobrescritas.
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class RecommendationBatchRepository {
+
+    private static final String MERGE_IF_ABSENT = "MERGE INTO recommendations r "
+            + "USING (VALUES (CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)))) "
+            + "AS v (student_id, course_name, category) "
+            + "ON r.student_id = v.student_id AND r.course_name = v.course_name "
+            + "WHEN NOT MATCHED THEN INSERT (student_id, course_name, category, is_saved, is_useful) "
+            + "VALUES (v.student_id, v.course_name, v.category, FALSE, FALSE)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return para cada recomendação, 1 se foi inserida e 0 se o par já existia
+     */
+    public int[] insertIfAbsent(List<Recommendation> recommendations) {
+        if (recommendations.isEmpty()) {
+            return new int[0];
+        }
+        List<Object[]> args = new ArrayList<>(recommendations.size());
+        for (Recommendation recommendation : recommendations) {
+            args.add(toArgs(recommendation));
+        }
+        try {
+            return jdbcTemplate.batchUpdate(MERGE_IF_ABSENT, args);
+        } catch (DuplicateKeyException e) {
+            // Um insert concorrente venceu a corrida em alguma linha: refaz uma a uma
+            int[] inserted = new int[recommendations.size()];
+            for (int i = 0; i < args.size(); i++) {
+                try {
+                    inserted[i] = jdbcTemplate.update(MERGE_IF_ABSENT, args.get(i));
+                } catch (DuplicateKeyException duplicate) {
+                    inserted[i] = 0;
+                }
+            }
+            return inserted;
+        }
+    }
+
+    private Object[] toArgs(Recommendation recommendation) {
+        return new Object[]{
+                recommendation.getStudentId(),
+                recommendation.getCourseName(),
+                recommendation.getCategory()
+        };
+    }
+}
@@ -1,15 +1,66 @@
 package com.devops.qas.tests.recommendation.repository;
 
 import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface RecommendationRepository extends JpaRepository<Recommendation, Long> {
     List<Recommendation> findByStudentId(Long studentId);
-    List<Recommendation> findByStudentIdAndCategoryContainingIgnoreCase(Long studentId, String category);
-    List<Recommendation> findByCategoryContainingIgnoreCase(String category);
-}
 
+    String UNCATEGORIZED = "Sem Categoria";
+
+    @Query("SELECT COALESCE(NULLIF(r.category, ''), '" + UNCATEGORIZED + "') AS category, "
+            + "r.courseName AS courseName, "
+            + "COUNT(r) AS totalCount, "
+            + "SUM(CASE WHEN r.isSaved = true THEN 1 ELSE 0 END) AS savedCount, "
+            + "SUM(CASE WHEN r.isUseful = true THEN 1 ELSE 0 END) AS usefulCount "
+            + "FROM Recommendation r "
+            + "GROUP BY COALESCE(NULLIF(r.category, ''), '" + UNCATEGORIZED + "'), r.courseName")
+    List<CourseStatsView> aggregateByCategoryAndCourse();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT DISTINCT COALESCE(NULLIF(r.category, ''), '" + UNCATEGORIZED + "') AS category, "
+            + "r.studentId AS studentId "
+            + "FROM Recommendation r")
+    Stream<CategoryStudentView> streamDistinctCategoryStudents();
+
+    // FINAL TABLE devolve a categoria da linha alterada no mesmo comando (lista vazia se nada mudou)
+    @Transactional
+    @Query(value = "SELECT category FROM FINAL TABLE (UPDATE recommendations SET is_saved = TRUE "
+            + "WHERE student_id = :studentId AND course_name = :courseName AND is_saved = FALSE)",
+            nativeQuery = true)
+    List<String> markSaved(@Param("studentId") Long studentId, @Param("courseName") String courseName);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO recommendations (student_id, course_name, is_saved, is_useful) "
+            + "SELECT CAST(:studentId AS BIGINT), CAST(:courseName AS VARCHAR(255)), TRUE, FALSE "
+            + "WHERE NOT EXISTS (SELECT 1 FROM recommendations WHERE student_id = :studentId AND course_name = :courseName)",
+            nativeQuery = true)
+    int insertSavedIfAbsent(@Param("studentId") Long studentId, @Param("courseName") String courseName);
+
+    @Transactional
+    @Query(value = "SELECT category FROM FINAL TABLE (UPDATE recommendations SET is_useful = TRUE "
+            + "WHERE student_id = :studentId AND course_name = :courseName AND is_useful = FALSE)",
+            nativeQuery = true)
+    List<String> markUseful(@Param("studentId") Long studentId, @Param("courseName") String courseName);
+
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO recommendations (student_id, course_name, is_saved, is_useful) "
+            + "SELECT CAST(:studentId AS BIGINT), CAST(:courseName AS VARCHAR(255)), FALSE, TRUE "
+            + "WHERE NOT EXISTS (SELECT 1 FROM recommendations WHERE student_id = :studentId AND course_name = :courseName)",
+            nativeQuery = true)
+    int insertUsefulIfAbsent(@Param("studentId") Long studentId, @Param("courseName") String courseName);
+}
@@ -2,156 +2,140 @@ package com.devops.qas.tests.recommendation.service;
 
 import com.devops.qas.tests.messaging.config.RabbitMQConfig;
 import com.devops.qas.tests.messaging.service.RabbitMQService;
-import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
 import com.devops.qas.tests.recommendation.dto.CategoryReportDTO;
-import com.devops.qas.tests.recommendation.repository.RecommendationRepository;
+import com.devops.qas.tests.recommendation.repository.CategoryStatsView;
+import com.devops.qas.tests.recommendation.repository.CourseStatsView;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class CategoryReportService {
 
-    private final RecommendationRepository repository;
+    static final int TOP_COURSES = 10;
+
+    private final CategoryStatsRegistry categoryStats;
     private final RabbitMQService rabbitMQService;
+    private final MeterRegistry meterRegistry;
 
     public void generateAndSendCategoryReport(String category, String recipientEmail) {
         log.info("Gerando relatório de categoria: {} para email: {}", category, recipientEmail);
+
+        CategoryReportDTO report = meterRegistry.timer("reports.category.build", "scope", "single")
+                .record(() -> buildSingleCategoryReport(category, recipientEmail));
+        
+        log.info("Enviando relatório da categoria '{}' para RabbitMQ", category);
+        rabbitMQService.sendMessage(
+                RabbitMQConfig.EMAIL_REPORTS_EXCHANGE,
+                RabbitMQConfig.EMAIL_REPORTS_ROUTING_KEY,
+                report
+        );
         
-        List<Recommendation> recommendations = repository.findByCategoryContainingIgnoreCase(category);
-        boolean hasData = !recommendations.isEmpty();
+        log.info("Relatório enviado com sucesso para processamento de email!");
+    }
+
+    /**
+     * Monta os relatórios de todas as categorias a partir das estatísticas em memória;
+     * a publicação fica a cargo do {@link ReportJobService}.
+     */
+    public List<CategoryReportDTO> buildAllCategoriesReports(String recipientEmail) {
+        return meterRegistry.timer("reports.category.build", "scope", "all")
+                .record(() -> buildAllReports(recipientEmail));
+    }
+
+    private CategoryReportDTO buildSingleCategoryReport(String category, String recipientEmail) {
+        CategoryStatsRegistry.CategorySnapshot stats = categoryStats.snapshotMatching(category, TOP_COURSES);
+        boolean hasData = stats.getTotalRecommendations() > 0;
 
         if (!hasData) {
             log.warn("Nenhuma recomendação encontrada para a categoria: {}", category);
         }
 
-        CategoryReportDTO report = buildCategoryReport(
+        return buildCategoryReport(
                 category,
-                recommendations,
+                stats,
+                toSummaries(stats.getTopCourses()),
                 recipientEmail,
                 hasData,
                 hasData
                         ? null
                         : String.format("Nenhuma recomendação encontrada para a categoria '%s' no momento.", category)
         );
-        
-        log.info("Enviando relatório para RabbitMQ: {}", report);
-        rabbitMQService.sendMessage(
-                RabbitMQConfig.EMAIL_REPORTS_EXCHANGE,
-                RabbitMQConfig.EMAIL_REPORTS_ROUTING_KEY,
-                report
-        );
-        
-        log.info("Relatório enviado com sucesso para processamento de email!");
     }
 
-    public void generateAndSendAllCategoriesReport(String recipientEmail) {
+    private List<CategoryReportDTO> buildAllReports(String recipientEmail) {
         log.info("Gerando relatório de todas as categorias para email: {}", recipientEmail);
         
-        List<Recommendation> allRecommendations = repository.findAll();
+        List<CategoryStatsRegistry.CategorySnapshot> categories = categoryStats.snapshotAll(TOP_COURSES);
         
-        if (allRecommendations.isEmpty()) {
+        if (categories.isEmpty()) {
             log.warn("Nenhuma recomendação encontrada no sistema");
-            CategoryReportDTO emptyReport = buildCategoryReport(
+            return List.of(buildCategoryReport(
                     "Sem Dados",
+                    null,
                     List.of(),
                     recipientEmail,
                     false,
                     "Nenhuma recomendação cadastrada no sistema no momento."
-            );
-            rabbitMQService.sendMessage(
-                    RabbitMQConfig.EMAIL_REPORTS_EXCHANGE,
-                    RabbitMQConfig.EMAIL_REPORTS_ROUTING_KEY,
-                    emptyReport
-            );
-            return;
+            ));
         }
 
-        Map<String, List<Recommendation>> byCategory = groupByCategory(allRecommendations);
-
-        byCategory.forEach((category, recommendations) -> {
-            CategoryReportDTO report = buildCategoryReport(
-                    category,
-                    recommendations,
+        List<CategoryReportDTO> reports = new ArrayList<>(categories.size());
+        for (CategoryStatsRegistry.CategorySnapshot stats : categories) {
+            reports.add(buildCategoryReport(
+                    stats.getCategory(),
+                    stats,
+                    toSummaries(stats.getTopCourses()),
                     recipientEmail,
                     true,
                     null
-            );
-            rabbitMQService.sendMessage(
-                    RabbitMQConfig.EMAIL_REPORTS_EXCHANGE,
-                    RabbitMQConfig.EMAIL_REPORTS_ROUTING_KEY,
-                    report
-            );
-        });
-
-        log.info("Relatórios de todas as categorias enviados com sucesso!");
+            ));
+        }
+        return reports;
+    }
+
+    private List<CategoryReportDTO.RecommendationSummary> toSummaries(List<? extends CourseStatsView> courses) {
+        List<CategoryReportDTO.RecommendationSummary> summaries = new ArrayList<>(courses.size());
+        for (CourseStatsView course : courses) {
+            summaries.add(toSummary(course));
+        }
+        return summaries;
     }
 
-    private Map<String, List<Recommendation>> groupByCategory(List<Recommendation> recommendations) {
-        return recommendations.stream()
-                .collect(Collectors.groupingBy(
-                        r -> r.getCategory() != null && !r.getCategory().isEmpty()
-                                ? r.getCategory()
-                                : "Sem Categoria"
-                ));
+    private CategoryReportDTO.RecommendationSummary toSummary(CourseStatsView course) {
+        long count = valueOf(course.getTotalCount());
+        double usefulPercentage = count > 0
+                ? (double) valueOf(course.getUsefulCount()) / count * 100
+                : 0.0;
+
+        return CategoryReportDTO.RecommendationSummary.builder()
+                .courseName(course.getCourseName())
+                .count(count)
+                .usefulPercentage(Math.round(usefulPercentage * 100.0) / 100.0)
+                .build();
     }
 
     private CategoryReportDTO buildCategoryReport(
             String category,
-            List<Recommendation> recommendations,
+            CategoryStatsView stats,
+            List<CategoryReportDTO.RecommendationSummary> topRecommendations,
             String recipientEmail,
             boolean hasData,
             String noticeMessage
     ) {
-        long totalRecommendations = recommendations.size();
-        long totalStudents = recommendations.stream()
-                .map(Recommendation::getStudentId)
-                .distinct()
-                .count();
-        long savedCount = recommendations.stream()
-                .filter(Recommendation::isSaved)
-                .count();
-        long usefulCount = recommendations.stream()
-                .filter(Recommendation::isUseful)
-                .count();
-
-        // Top recomendações por curso
-        Map<String, List<Recommendation>> byCourse = recommendations.stream()
-                .collect(Collectors.groupingBy(Recommendation::getCourseName));
-
-        List<CategoryReportDTO.RecommendationSummary> topRecommendations = byCourse.entrySet().stream()
-                .map(entry -> {
-                    List<Recommendation> courseRecs = entry.getValue();
-                    long courseUsefulCount = courseRecs.stream()
-                            .filter(Recommendation::isUseful)
-                            .count();
-                    double usefulPercentage = courseRecs.size() > 0 
-                            ? (double) courseUsefulCount / courseRecs.size() * 100 
-                            : 0.0;
-
-                    return CategoryReportDTO.RecommendationSummary.builder()
-                            .courseName(entry.getKey())
-                            .count((long) courseRecs.size())
-                            .usefulPercentage(Math.round(usefulPercentage * 100.0) / 100.0)
-                            .build();
-                })
-                .sorted((a, b) -> Long.compare(b.getCount(), a.getCount()))
-                .limit(10)
-                .collect(Collectors.toList());
-
         return CategoryReportDTO.builder()
                 .category(category)
-                .totalRecommendations(totalRecommendations)
-                .totalStudents(totalStudents)
-                .savedCount(savedCount)
-                .usefulCount(usefulCount)
+                .totalRecommendations(stats != null ? valueOf(stats.getTotalRecommendations()) : 0L)
+                .totalStudents(stats != null ? valueOf(stats.getTotalStudents()) : 0L)
+                .savedCount(stats != null ? valueOf(stats.getSavedCount()) : 0L)
+                .usefulCount(stats != null ? valueOf(stats.getUsefulCount()) : 0L)
                 .topRecommendations(topRecommendations)
                 .reportDate(LocalDateTime.now())
                 .recipientEmail(recipientEmail)
@@ -159,5 +143,8 @@ public class CategoryReportService {
                 .noticeMessage(noticeMessage)
                 .build();
     }
-}
 
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,255 @@
+package com.devops.qas.tests.recommendation.service;
+
+import com.devops.qas.tests.recommendation.repository.CategoryStatsView;
+import com.devops.qas.tests.recommendation.repository.CategoryStudentView;
+import com.devops.qas.tests.recommendation.repository.CourseStatsView;
+import com.devops.qas.tests.recommendation.repository.RecommendationRepository;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Estatísticas de recomendações por categoria e por curso mantidas em memória.
+ * Reconstruídas do banco na subida e atualizadas a cada escrita do
+ * {@link RecommendationService}, para que os relatórios não precisem varrer a tabela.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryStatsRegistry {
+
+    private final RecommendationRepository repository;
+
+    private volatile Map<String, CategoryCounters> categories = new ConcurrentHashMap<>();
+    // Escritas registradas durante uma reconstrução (null fora dela), reaplicadas no mapa novo
+    private Queue<Consumer<Map<String, CategoryCounters>>> pendingWrites;
+    // Compartilhado pelas escritas; exclusivo só para abrir a reconstrução e trocar o mapa
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+
+    /**
+     * Roda quando a aplicação fica pronta, com o servidor já aceitando requisições.
+     * As escritas feitas enquanto o banco é lido continuam indo para o mapa atual e
+     * são reaplicadas no reconstruído antes da troca. Só uma escrita gravada no banco
+     * antes da leitura e registrada depois do início pode ser contada duas vezes.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        Map<String, CategoryCounters> rebuilt = new ConcurrentHashMap<>();
+        swapLock.writeLock().lock();
+        try {
+            pendingWrites = new ConcurrentLinkedQueue<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        try {
+            load(rebuilt);
+            swapLock.writeLock().lock();
+            try {
+                pendingWrites.forEach(write -> write.accept(rebuilt));
+                categories = rebuilt;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                pendingWrites = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+        log.info("Estatísticas de categorias reconstruídas: {} categorias em {} ms",
+                rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void load(Map<String, CategoryCounters> rebuilt) {
+        for (CourseStatsView course : repository.aggregateByCategoryAndCourse()) {
+            CategoryCounters counters = rebuilt.computeIfAbsent(course.getCategory(), key -> new CategoryCounters());
+            long total = valueOf(course.getTotalCount());
+            long saved = valueOf(course.getSavedCount());
+            long useful = valueOf(course.getUsefulCount());
+            counters.total.add(total);
+            counters.saved.add(saved);
+            counters.useful.add(useful);
+            CourseCounters courseCounters = counters.course(course.getCourseName());
+            courseCounters.total.add(total);
+            courseCounters.saved.add(saved);
+            courseCounters.useful.add(useful);
+        }
+
+        try (Stream<CategoryStudentView> students = repository.streamDistinctCategoryStudents()) {
+            students.forEach(row -> rebuilt.computeIfAbsent(row.getCategory(), key -> new CategoryCounters())
+                    .students.add(row.getStudentId()));
+        }
+    }
+
+    public void recordInsert(String category, Long studentId, String courseName, boolean saved, boolean useful) {
+        String key = categoryKey(category);
+        record(map -> {
+            CategoryCounters counters = map.computeIfAbsent(key, k -> new CategoryCounters());
+            CourseCounters course = counters.course(courseName);
+            counters.total.increment();
+            course.total.increment();
+            if (studentId != null) {
+                counters.students.add(studentId);
+            }
+            recordFlags(counters, course, saved, useful);
+        });
+    }
+
+    public void recordFlagChange(String category, String courseName, boolean saved, boolean useful) {
+        String key = categoryKey(category);
+        record(map -> {
+            CategoryCounters counters = map.computeIfAbsent(key, k -> new CategoryCounters());
+            recordFlags(counters, counters.course(courseName), saved, useful);
+        });
+    }
+
+    private void record(Consumer<Map<String, CategoryCounters>> write) {
+        swapLock.readLock().lock();
+        try {
+            write.accept(categories);
+            if (pendingWrites != null) {
+                pendingWrites.add(write);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    public List<CategorySnapshot> snapshotAll(int topCourses) {
+        List<CategorySnapshot> snapshots = new ArrayList<>();
+        categories.forEach((name, counters) -> snapshots.add(snapshot(name, List.of(counters), topCourses)));
+        snapshots.sort(Comparator.comparing(CategorySnapshot::getCategory));
+        return snapshots;
+    }
+
+    /**
+     * Agrega as categorias cujo nome contém o termo (sem diferenciar maiúsculas),
+     * como o antigo LIKE; alunos em mais de uma categoria são contados uma vez.
+     */
+    public CategorySnapshot snapshotMatching(String term, int topCourses) {
+        String needle = term == null ? "" : term.toLowerCase(Locale.ROOT);
+        List<CategoryCounters> matching = new ArrayList<>();
+        categories.forEach((name, counters) -> {
+            if (!RecommendationRepository.UNCATEGORIZED.equals(name)
+                    && name.toLowerCase(Locale.ROOT).contains(needle)) {
+                matching.add(counters);
+            }
+        });
+        return snapshot(term, matching, topCourses);
+    }
+
+    private static CategorySnapshot snapshot(String category, List<CategoryCounters> sources, int topCourses) {
+        long total = 0;
+        long saved = 0;
+        long useful = 0;
+        List<HyperLogLog> students = new ArrayList<>(sources.size());
+        Map<String, CourseSnapshot> courses = new HashMap<>();
+        for (CategoryCounters counters : sources) {
+            total += counters.total.sum();
+            saved += counters.saved.sum();
+            useful += counters.useful.sum();
+            students.add(counters.students);
+            counters.courses.forEach((courseName, course) ->
+                    courses.merge(courseName, CourseSnapshot.of(category, courseName, course), CourseSnapshot::plus));
+        }
+        List<CourseSnapshot> top = courses.values().stream()
+                .sorted(Comparator.comparing(CourseSnapshot::getTotalCount).reversed()
+                        .thenComparing(CourseSnapshot::getCourseName))
+                .limit(topCourses)
+                .toList();
+        long totalStudents = sources.isEmpty() ? 0L : HyperLogLog.estimate(students);
+        return new CategorySnapshot(category, total, totalStudents, saved, useful, top);
+    }
+
+    private static void recordFlags(CategoryCounters counters, CourseCounters course, boolean saved, boolean useful) {
+        if (saved) {
+            counters.saved.increment();
+            course.saved.increment();
+        }
+        if (useful) {
+            counters.useful.increment();
+            course.useful.increment();
+        }
+    }
+
+    // Mesma normalização do COALESCE(NULLIF(category, ''), ...) das consultas
+    private static String categoryKey(String category) {
+        return category == null || category.isEmpty() ? RecommendationRepository.UNCATEGORIZED : category;
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private static final class CategoryCounters {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder saved = new LongAdder();
+        private final LongAdder useful = new LongAdder();
+        private final HyperLogLog students = new HyperLogLog();
+        private final Map<String, CourseCounters> courses = new ConcurrentHashMap<>();
+
+        private CourseCounters course(String courseName) {
+            return courses.computeIfAbsent(courseName, key -> new CourseCounters());
+        }
+    }
+
+    private static final class CourseCounters {
+        private final LongAdder total = new LongAdder();
+        private final LongAdder saved = new LongAdder();
+        private final LongAdder useful = new LongAdder();
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class CategorySnapshot implements CategoryStatsView {
+        private final String category;
+        private final Long totalRecommendations;
+        private final Long totalStudents;
+        private final Long savedCount;
+        private final Long usefulCount;
+        private final List<CourseSnapshot> topCourses;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class CourseSnapshot implements CourseStatsView {
+        private final String category;
+        private final String courseName;
+        private final Long totalCount;
+        private final Long savedCount;
+        private final Long usefulCount;
+
+        private static CourseSnapshot of(String category, String courseName, CourseCounters counters) {
+            return new CourseSnapshot(category, courseName,
+                    counters.total.sum(), counters.saved.sum(), counters.useful.sum());
+        }
+
+        private CourseSnapshot plus(CourseSnapshot other) {
+            return new CourseSnapshot(category, courseName, totalCount + other.totalCount,
+                    savedCount + other.savedCount, usefulCount + other.usefulCount);
+        }
+    }
+}
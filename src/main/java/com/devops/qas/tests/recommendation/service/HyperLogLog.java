@@ -0,0 +1,87 @@
+package com.devops.qas.tests.recommendation.service;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Estimativa de cardinalidade (HyperLogLog, p = 12): 4096 registradores,
+ * erro padrão de ~1,6% e memória fixa, independente do número de alunos.
+ * Até {@value #EXACT_THRESHOLD} valores mantém também o conjunto exato, para que
+ * categorias pequenas tenham contagem precisa. Seguro para escrita concorrente;
+ * a união é o máximo por registrador.
+ */
+final class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    static final int EXACT_THRESHOLD = 1024;
+
+    private final AtomicIntegerArray registers = new AtomicIntegerArray(REGISTERS);
+    private volatile Set<Long> exact = ConcurrentHashMap.newKeySet();
+
+    void add(long value) {
+        Set<Long> small = exact;
+        if (small != null && small.add(value) && small.size() > EXACT_THRESHOLD) {
+            exact = null;
+        }
+
+        long hash = mix(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        int rank = Math.min(Long.numberOfLeadingZeros(hash << PRECISION), Long.SIZE - PRECISION) + 1;
+        if (registers.get(index) < rank) {
+            registers.accumulateAndGet(index, rank, Math::max);
+        }
+    }
+
+    long estimate() {
+        return estimate(List.of(this));
+    }
+
+    static long estimate(Collection<HyperLogLog> sketches) {
+        Set<Long> union = new HashSet<>();
+        for (HyperLogLog sketch : sketches) {
+            Set<Long> small = sketch.exact;
+            if (small == null) {
+                union = null;
+                break;
+            }
+            union.addAll(small);
+        }
+        if (union != null && union.size() <= EXACT_THRESHOLD) {
+            return union.size();
+        }
+
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            int max = 0;
+            for (HyperLogLog sketch : sketches) {
+                max = Math.max(max, sketch.registers.get(i));
+            }
+            sum += 1.0 / (1L << max);
+            if (max == 0) {
+                zeros++;
+            }
+        }
+        double raw = ALPHA * REGISTERS * REGISTERS / sum;
+        if (raw <= 2.5 * REGISTERS && zeros > 0) {
+            // Faixa pequena: contagem linear é mais precisa
+            return Math.round(REGISTERS * Math.log((double) REGISTERS / zeros));
+        }
+        return Math.round(raw);
+    }
+
+    // Finalizador do SplitMix64: espalha ids sequenciais por todos os bits
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,13 +1,22 @@
 package com.devops.qas.tests.recommendation.service;
 
+import com.devops.qas.tests.recommendation.config.CacheConfig;
 import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
+import com.devops.qas.tests.recommendation.dto.CacheStatsDTO;
 import com.devops.qas.tests.recommendation.dto.RecommendationDTO;
+import com.devops.qas.tests.recommendation.repository.RecommendationBatchRepository;
 import com.devops.qas.tests.recommendation.repository.RecommendationRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -15,50 +24,36 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class RecommendationService {
 
+    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$");
+
     private final RecommendationRepository repository;
+    private final RecommendationBatchRepository batchRepository;
+    private final CacheManager cacheManager;
+    private final CategoryStatsRegistry categoryStats;
 
     public List<RecommendationDTO> getRecommendations(Long studentId) {
-        return repository.findByStudentId(studentId).stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+        return recommendationsCache().get(studentId, () -> loadRecommendations(studentId));
     }
 
     public boolean sendRecommendationEmail(Long studentId, String email) {
         if (email == null)
             return false;
-        boolean emailValido = Pattern.compile("^[^@\\s]+@[^@\\s]+\\.[^@\\s]+$").matcher(email).matches();
-        boolean temRecs = !repository.findByStudentId(studentId).isEmpty();
-        return emailValido && temRecs;
+        boolean emailValido = EMAIL_PATTERN.matcher(email).matches();
+        return emailValido && !getRecommendations(studentId).isEmpty();
     }
 
     public List<RecommendationDTO> filterRecommendationsByCategory(Long studentId, String category) {
-        String cat = category == null ? "" : category;
-        return repository.findByStudentIdAndCategoryContainingIgnoreCase(studentId, cat).stream()
-                .map(this::toDTO)
+        String cat = category == null ? "" : category.toLowerCase(Locale.ROOT);
+        return getRecommendations(studentId).stream()
+                .filter(r -> r.getCategory() != null && r.getCategory().toLowerCase(Locale.ROOT).contains(cat))
                 .collect(Collectors.toList());
     }
 
     public boolean saveRecommendationForLater(Long studentId, String courseName) {
         if (courseName == null || courseName.isBlank())
             return false;
-        
-        // Find if exists or create new
-        Optional<Recommendation> existing = repository.findByStudentId(studentId).stream()
-                .filter(r -> r.getCourseName().equals(courseName))
-                .findFirst();
-
-        Recommendation rec;
-        if (existing.isPresent()) {
-            rec = existing.get();
-            rec.setSaved(true);
-        } else {
-            rec = Recommendation.builder()
-                    .studentId(studentId)
-                    .courseName(courseName)
-                    .isSaved(true)
-                    .build();
-        }
-        repository.save(rec);
+
+        applyFlag(studentId, courseName, Flag.SAVED);
         return true;
     }
 
@@ -66,25 +61,104 @@ public class RecommendationService {
         if (courseName == null || courseName.isBlank())
             return false;
 
-        Optional<Recommendation> existing = repository.findByStudentId(studentId).stream()
-                .filter(r -> r.getCourseName().equals(courseName))
-                .findFirst();
-
-        Recommendation rec;
-        if (existing.isPresent()) {
-            rec = existing.get();
-            rec.setUseful(true);
-        } else {
-            rec = Recommendation.builder()
-                    .studentId(studentId)
-                    .courseName(courseName)
-                    .isUseful(true)
-                    .build();
-        }
-        repository.save(rec);
+        applyFlag(studentId, courseName, Flag.USEFUL);
         return true;
     }
 
+    /**
+     * Grava recomendações geradas em lote sem tocar nas que o aluno já tem.
+     *
+     * @return quantas linhas novas foram criadas
+     */
+    public int addGeneratedRecommendations(List<Recommendation> recommendations) {
+        int[] inserted = batchRepository.insertIfAbsent(recommendations);
+        Set<Long> touchedStudents = new HashSet<>();
+        int created = 0;
+        for (int i = 0; i < inserted.length; i++) {
+            if (inserted[i] > 0) {
+                Recommendation recommendation = recommendations.get(i);
+                categoryStats.recordInsert(recommendation.getCategory(), recommendation.getStudentId(),
+                        recommendation.getCourseName(), false, false);
+                touchedStudents.add(recommendation.getStudentId());
+                created++;
+            }
+        }
+        Cache cache = recommendationsCache();
+        touchedStudents.forEach(cache::evict);
+        return created;
+    }
+
+    public CacheStatsDTO getCacheStats() {
+        Cache cache = recommendationsCache();
+        CacheStatsDTO.CacheStatsDTOBuilder stats = CacheStatsDTO.builder().cacheName(cache.getName());
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine) {
+            CacheStats caffeineStats = caffeine.stats();
+            stats.size(caffeine.estimatedSize())
+                    .hitCount(caffeineStats.hitCount())
+                    .missCount(caffeineStats.missCount())
+                    .hitRate(caffeineStats.hitRate())
+                    .evictionCount(caffeineStats.evictionCount());
+        }
+        return stats.build();
+    }
+
+    private List<RecommendationDTO> loadRecommendations(Long studentId) {
+        return repository.findByStudentId(studentId).stream()
+                .map(this::toDTO)
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * UPDATE condicional na linha (aluno, curso) e, se ela não existir, INSERT
+     * protegido pela chave única. Se outra requisição inserir a mesma linha
+     * entre os dois comandos, a violação da chave é absorvida com nova tentativa.
+     *
+     * <p>Não é um MERGE único de propósito: as estatísticas por categoria precisam
+     * saber se a linha foi criada ou só teve a flag alterada, e no H2 o FINAL TABLE
+     * de um MERGE devolve as duas do mesmo jeito (o OLD TABLE omite as inseridas).
+     * O caso comum (flag em recomendação já gerada) continua sendo um comando só.
+     */
+    private void applyFlag(Long studentId, String courseName, Flag flag) {
+        boolean changed;
+        try {
+            changed = applyFlagOnce(studentId, courseName, flag);
+        } catch (DataIntegrityViolationException e) {
+            changed = applyFlagOnce(studentId, courseName, flag);
+        }
+        if (changed) {
+            recommendationsCache().evict(studentId);
+        }
+    }
+
+    private boolean applyFlagOnce(Long studentId, String courseName, Flag flag) {
+        boolean saved = flag == Flag.SAVED;
+        List<String> updated = saved
+                ? repository.markSaved(studentId, courseName)
+                : repository.markUseful(studentId, courseName);
+        if (!updated.isEmpty()) {
+            categoryStats.recordFlagChange(updated.get(0), courseName, saved, !saved);
+            return true;
+        }
+
+        int inserted = saved
+                ? repository.insertSavedIfAbsent(studentId, courseName)
+                : repository.insertUsefulIfAbsent(studentId, courseName);
+        if (inserted > 0) {
+            categoryStats.recordInsert(null, studentId, courseName, saved, !saved);
+            return true;
+        }
+        return false;
+    }
+
+    private Cache recommendationsCache() {
+        return cacheManager.getCache(CacheConfig.RECOMMENDATIONS_CACHE);
+    }
+
+    private enum Flag {
+        SAVED,
+        USEFUL
+    }
+
     private RecommendationDTO toDTO(Recommendation entity) {
         return RecommendationDTO.builder()
                 .id(entity.getId())
@@ -0,0 +1,182 @@
+package com.devops.qas.tests.recommendation.service;
+
+import com.devops.qas.tests.messaging.config.RabbitMQConfig;
+import com.devops.qas.tests.messaging.service.RabbitMQService;
+import com.devops.qas.tests.recommendation.dto.CategoryReportDTO;
+import com.devops.qas.tests.recommendation.dto.ReportJobDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executa a geração e publicação dos relatórios de todas as categorias fora da
+ * thread HTTP, num pool limitado. Os relatórios são publicados em lotes com
+ * publisher confirms (uma espera por lote) e o progresso de cada job fica
+ * disponível para consulta até ser descartado pelos mais recentes.
+ */
+@Service
+@Slf4j
+public class ReportJobService {
+
+    private final CategoryReportService reportService;
+    private final RabbitMQService rabbitMQService;
+    private final int corePoolSize;
+    private final int maxPoolSize;
+    private final int queueCapacity;
+    private final int publishBatchSize;
+    private final long confirmTimeoutMs;
+    private final int maxRetainedJobs;
+
+    private final Map<String, ReportJob> jobs;
+    private ThreadPoolTaskExecutor executor;
+
+    public ReportJobService(
+            CategoryReportService reportService,
+            RabbitMQService rabbitMQService,
+            @Value("${reports.executor.core-pool-size:2}") int corePoolSize,
+            @Value("${reports.executor.max-pool-size:4}") int maxPoolSize,
+            @Value("${reports.executor.queue-capacity:20}") int queueCapacity,
+            @Value("${reports.publish.batch-size:100}") int publishBatchSize,
+            @Value("${reports.publish.confirm-timeout-ms:10000}") long confirmTimeoutMs,
+            @Value("${reports.jobs.max-retained:200}") int maxRetainedJobs) {
+        this.reportService = reportService;
+        this.rabbitMQService = rabbitMQService;
+        this.corePoolSize = corePoolSize;
+        this.maxPoolSize = maxPoolSize;
+        this.queueCapacity = queueCapacity;
+        this.publishBatchSize = publishBatchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.maxRetainedJobs = maxRetainedJobs;
+        this.jobs = Collections.synchronizedMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ReportJob> eldest) {
+                return size() > ReportJobService.this.maxRetainedJobs;
+            }
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    /**
+     * @throws TaskRejectedException se o pool e a fila estiverem cheios
+     */
+    public ReportJobDTO submitAllCategoriesReport(String recipientEmail) {
+        ReportJob job = new ReportJob(UUID.randomUUID().toString(), recipientEmail);
+        try {
+            executor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            log.warn("Pool de relatórios saturado, job {} recusado", job.id);
+            throw e;
+        }
+        jobs.put(job.id, job);
+        log.info("Job de relatório {} enfileirado para email: {}", job.id, recipientEmail);
+        return job.toDTO();
+    }
+
+    public Optional<ReportJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(ReportJob::toDTO);
+    }
+
+    private void run(ReportJob job) {
+        job.startedAt = Instant.now();
+        job.status = ReportJobDTO.Status.RUNNING;
+        ReportJobDTO.Status outcome;
+        try {
+            List<CategoryReportDTO> reports = reportService.buildAllCategoriesReports(job.recipientEmail);
+            job.totalReports = reports.size();
+            job.builtAt = Instant.now();
+
+            for (int from = 0; from < reports.size(); from += publishBatchSize) {
+                List<CategoryReportDTO> batch = reports.subList(from, Math.min(from + publishBatchSize, reports.size()));
+                rabbitMQService.sendBatch(
+                        RabbitMQConfig.EMAIL_REPORTS_EXCHANGE,
+                        RabbitMQConfig.EMAIL_REPORTS_ROUTING_KEY,
+                        batch,
+                        confirmTimeoutMs
+                );
+                job.publishedReports.addAndGet(batch.size());
+            }
+            outcome = ReportJobDTO.Status.COMPLETED;
+        } catch (RuntimeException e) {
+            job.error = e.getMessage();
+            outcome = ReportJobDTO.Status.FAILED;
+            log.error("Falha no job de relatório {}: {}", job.id, e.getMessage(), e);
+        }
+        job.finishedAt = Instant.now();
+        job.status = outcome;
+        log.info("Job de relatório {} finalizado ({}): {}/{} relatórios em {} ms",
+                job.id, job.status, job.publishedReports.get(), job.totalReports,
+                Duration.between(job.startedAt, job.finishedAt).toMillis());
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final String recipientEmail;
+        private final Instant submittedAt = Instant.now();
+        private final AtomicInteger publishedReports = new AtomicInteger();
+        private volatile ReportJobDTO.Status status = ReportJobDTO.Status.QUEUED;
+        private volatile int totalReports;
+        private volatile Instant startedAt;
+        private volatile Instant builtAt;
+        private volatile Instant finishedAt;
+        private volatile String error;
+
+        private ReportJob(String id, String recipientEmail) {
+            this.id = id;
+            this.recipientEmail = recipientEmail;
+        }
+
+        private ReportJobDTO toDTO() {
+            Instant started = startedAt;
+            Instant built = builtAt;
+            Instant finished = finishedAt;
+            return ReportJobDTO.builder()
+                    .jobId(id)
+                    .status(status)
+                    .recipientEmail(recipientEmail)
+                    .totalReports(totalReports)
+                    .publishedReports(publishedReports.get())
+                    .submittedAt(submittedAt)
+                    .startedAt(started)
+                    .finishedAt(finished)
+                    .queuedMs(millisBetween(submittedAt, started))
+                    .buildMs(millisBetween(started, built))
+                    .publishMs(millisBetween(built, finished))
+                    .error(error)
+                    .build();
+        }
+
+        private static Long millisBetween(Instant start, Instant end) {
+            return start != null && end != null ? Duration.between(start, end).toMillis() : null;
+        }
+    }
+}
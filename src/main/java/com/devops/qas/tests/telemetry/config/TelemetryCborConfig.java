@@ -0,0 +1,21 @@
+package com.devops.qas.tests.telemetry.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+/**
+ * Conversor {@code application/cbor} do MVC montado sobre o {@link ObjectMapper} da
+ * aplicação, para que HTTP e MQTT leiam CBOR com as mesmas configurações do JSON.
+ * Substitui o conversor CBOR padrão do Spring.
+ */
+@Configuration
+public class TelemetryCborConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory()));
+    }
+}
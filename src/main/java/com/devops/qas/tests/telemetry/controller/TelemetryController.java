@@ -1,11 +1,37 @@
 package com.devops.qas.tests.telemetry.controller;
 
+import com.devops.qas.tests.telemetry.dto.BulkIngestResultDTO;
+import com.devops.qas.tests.telemetry.dto.DailyEngagementDTO;
+import com.devops.qas.tests.telemetry.dto.EngagementWindowDTO;
+import com.devops.qas.tests.telemetry.dto.IngestionStatsDTO;
 import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.devops.qas.tests.telemetry.dto.TelemetryCursor;
+import com.devops.qas.tests.telemetry.dto.TelemetryEventFilter;
+import com.devops.qas.tests.telemetry.dto.TelemetryEventPageDTO;
+import com.devops.qas.tests.telemetry.dto.TelemetryRetentionResultDTO;
+import com.devops.qas.tests.telemetry.service.TelemetryArrowExporter;
+import com.devops.qas.tests.telemetry.service.TelemetryBulkIngestService;
 import com.devops.qas.tests.telemetry.service.TelemetryEventService;
+import com.devops.qas.tests.telemetry.service.TelemetryIngestionPipeline;
+import com.devops.qas.tests.telemetry.service.TelemetryLiveFeed;
+import com.devops.qas.tests.telemetry.service.TelemetryRetentionService;
+import com.devops.qas.tests.telemetry.service.TelemetryWindowAggregator;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.List;
 
 @RestController
@@ -13,18 +39,156 @@ import java.util.List;
 @RequiredArgsConstructor
 public class TelemetryController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final TelemetryEventService telemetryEventService;
+    private final TelemetryBulkIngestService bulkIngestService;
+    private final TelemetryIngestionPipeline ingestionPipeline;
+    private final TelemetryWindowAggregator windowAggregator;
+    private final TelemetryLiveFeed liveFeed;
+    private final TelemetryRetentionService retentionService;
+    private final TelemetryArrowExporter arrowExporter;
 
     @GetMapping("/events")
     public ResponseEntity<List<StudySessionEventDTO>> getEvents(
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeMetadata) {
+        TelemetryEventFilter filter = TelemetryEventFilter.builder()
+                .studentId(studentId)
+                .category(category)
+                .from(from)
+                .to(to)
+                .after(parseCursor(cursor))
+                .includeMetadata(includeMetadata)
+                .build();
+        TelemetryEventPageDTO page = telemetryEventService.findPage(filter, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getEvents());
+    }
+
+    /**
+     * Eventos {@code session} com cada evento gravado a partir da conexão; um evento
+     * {@code dropped} avisa quantos foram descartados porque o cliente não acompanhou.
+     */
+    @GetMapping(value = "/events/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
             @RequestParam(required = false) Long studentId,
             @RequestParam(required = false) String category) {
-        return ResponseEntity.ok(telemetryEventService.findByFilters(studentId, category));
+        return liveFeed.subscribe(studentId, category);
     }
 
-    @PostMapping("/events")
+    /**
+     * Eventos recebidos em [from, to) como stream Arrow IPC, lidos por cursor e
+     * escritos em lotes; 503 se já houver o máximo de exportações em andamento.
+     */
+    @GetMapping("/events/export")
+    public void exportEvents(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            HttpServletResponse response) throws IOException {
+        OffsetDateTime end = to != null ? to : OffsetDateTime.now(ZoneOffset.UTC);
+        if (!from.isBefore(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from deve ser anterior a to");
+        }
+        arrowExporter.acquire();
+        try {
+            response.setContentType(TelemetryArrowExporter.MEDIA_TYPE);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"study_session_events"
+                    + TelemetryArrowExporter.FILE_EXTENSION + "\"");
+            arrowExporter.export(from, end, response.getOutputStream());
+        } finally {
+            arrowExporter.release();
+        }
+    }
+
+    @PostMapping(value = "/events", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
     public ResponseEntity<StudySessionEventDTO> ingestEvent(@RequestBody StudySessionEventDTO eventDTO) {
         return ResponseEntity.ok(telemetryEventService.saveEvent(eventDTO));
     }
-}
 
+    @PostMapping(value = "/events/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkIngestResultDTO> ingestBulk(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        if (MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(contentType))) {
+            return ResponseEntity.ok(bulkIngestService.ingestNdjson(body));
+        }
+        return ResponseEntity.ok(bulkIngestService.ingestJsonArray(body));
+    }
+
+    @GetMapping("/ingestion/stats")
+    public ResponseEntity<IngestionStatsDTO> getIngestionStats() {
+        return ResponseEntity.ok(ingestionPipeline.getStats());
+    }
+
+    /**
+     * Sessões, minutos e engajamento por categoria, curso ou aluno nas janelas de
+     * 1m/15m/1h, servidos da memória (sem consulta ao banco).
+     */
+    @GetMapping("/engagement")
+    public ResponseEntity<List<EngagementWindowDTO>> getEngagement(
+            @RequestParam(defaultValue = "category") String groupBy,
+            @RequestParam(defaultValue = "15m") String window,
+            @RequestParam(defaultValue = "sliding") String mode,
+            @RequestParam(required = false) String key,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(windowAggregator.snapshot(
+                    TelemetryWindowAggregator.GroupBy.parse(groupBy),
+                    TelemetryWindowAggregator.Window.parse(window),
+                    TelemetryWindowAggregator.Mode.parse(mode),
+                    key, limit));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Engajamento por dia (UTC) e categoria entre {@code from} e {@code to}, inclusive
+     * (padrão: últimos 30 dias). Dias já resumidos vêm de {@code study_session_daily_rollups}.
+     */
+    @GetMapping("/engagement/daily")
+    public ResponseEntity<List<DailyEngagementDTO>> getDailyEngagement(
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (start.isAfter(end)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from deve ser anterior ou igual a to");
+        }
+        return ResponseEntity.ok(retentionService.findDaily(studentId, category, start, end));
+    }
+
+    /**
+     * Executa a retenção agora (resumo dos dias fechados e limpeza dos eventos brutos).
+     */
+    @PostMapping("/retention/run")
+    public ResponseEntity<TelemetryRetentionResultDTO> runRetention() {
+        return retentionService.run()
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+    }
+
+    private TelemetryCursor parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return TelemetryCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+    }
+}
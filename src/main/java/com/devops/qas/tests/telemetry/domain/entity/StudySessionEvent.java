@@ -44,12 +44,21 @@ public class StudySessionEvent {
     @Column(name = "end_time")
     private OffsetDateTime endTime;
 
+    @Column(name = "focus_level")
+    private Double focusLevel;
+
+    @Column(name = "interruptions")
+    private Integer interruptions;
+
     @Column(name = "metadata_json", columnDefinition = "TEXT")
     private String metadataJson;
 
     @Column(name = "received_at")
     private OffsetDateTime receivedAt;
 
+    @Column(name = "dedup_key", length = 64)
+    private String dedupKey;
+
     @PrePersist
     public void onPersist() {
         if (receivedAt == null) {
@@ -0,0 +1,21 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkIngestResultDTO {
+    private long accepted;
+    private long rejected;
+    /** Aceitos que já estavam gravados (mesma chave de deduplicação). */
+    private long duplicates;
+    private boolean truncated;
+    private List<String> errors;
+}
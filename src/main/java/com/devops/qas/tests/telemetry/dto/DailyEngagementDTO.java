@@ -0,0 +1,25 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Engajamento de um dia (UTC) numa categoria, somando os alunos filtrados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyEngagementDTO {
+    private LocalDate day;
+    private String category;
+    private long sessions;
+    private long totalDurationMinutes;
+    private Double averageEngagement;
+    private Double averageFocusLevel;
+    private long interruptions;
+}
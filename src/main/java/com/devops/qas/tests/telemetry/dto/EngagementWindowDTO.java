@@ -0,0 +1,29 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Agregado de uma janela de telemetria para uma categoria, curso ou aluno.
+ * Os percentis de engajamento são aproximados (histograma com resolução 0,05).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EngagementWindowDTO {
+    private String groupBy;
+    private String key;
+    private Instant windowStart;
+    private Instant windowEnd;
+    private long sessions;
+    private long totalDurationMinutes;
+    private Double averageEngagement;
+    private Double p50Engagement;
+    private Double p90Engagement;
+    private Double p99Engagement;
+}
@@ -0,0 +1,24 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestionStatsDTO {
+    private int bufferCapacity;
+    private int bufferSize;
+    private long accepted;
+    private long overflowed;
+    private long persisted;
+    private long duplicates;
+    private long failed;
+    private long batches;
+    /** Eventos no spool ainda não gravados no banco (0 sem spool). */
+    private long spoolDepth;
+    private long spoolLagMillis;
+}
@@ -14,6 +14,8 @@ import java.util.Map;
 @AllArgsConstructor
 public class StudySessionEventDTO {
     private Long id;
+    /** Id do evento gerado pelo dispositivo (opcional), usado na deduplicação. */
+    private String eventId;
     private Long studentId;
     private String deviceId;
     private String category;
@@ -22,6 +24,9 @@ public class StudySessionEventDTO {
     private Double engagementScore;
     private OffsetDateTime startTime;
     private OffsetDateTime endTime;
+    /** Também aceitos dentro de {@code metadata}; gravados em colunas próprias. */
+    private Double focusLevel;
+    private Integer interruptions;
     private Map<String, Object> metadata;
     private OffsetDateTime receivedAt;
 }
@@ -0,0 +1,43 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posição de paginação por keyset: (received_at, id) do último evento devolvido.
+ * Serializado como base64 url-safe para ser opaco ao cliente.
+ */
+@Data
+@AllArgsConstructor
+public class TelemetryCursor {
+
+    private OffsetDateTime receivedAt;
+    private Long id;
+
+    public String encode() {
+        String raw = receivedAt.toInstant() + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TelemetryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor inválido: " + token);
+            }
+            Instant receivedAt = Instant.parse(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new TelemetryCursor(receivedAt.atOffset(ZoneOffset.UTC), id);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor inválido: " + token, e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryEventFilter {
+    private Long studentId;
+    private String category;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private TelemetryCursor after;
+    private int limit;
+    /** Sem metadata a coluna JSON nem é lida do banco. */
+    @Builder.Default
+    private boolean includeMetadata = true;
+}
@@ -0,0 +1,23 @@
+package com.devops.qas.tests.telemetry.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Resultado de uma execução da retenção de telemetria.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TelemetryRetentionResultDTO {
+    private int daysRolledUp;
+    private long rollupRowsCreated;
+    private long rawEventsDeleted;
+    private LocalDate rolledUpUntil;
+    private LocalDate rawRetainedFrom;
+}
@@ -0,0 +1,135 @@
+package com.devops.qas.tests.telemetry.repository;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Inserções em lote de eventos de telemetria com MERGE multi-linha, evitando um
+ * round trip (e uma transação) por evento. Linhas cuja {@code dedup_key} já existe
+ * são ignoradas; linhas sem chave são sempre inseridas.
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class StudySessionEventBatchRepository {
+
+    static final int MAX_ROWS_PER_STATEMENT = 500;
+
+    private static final String[] GENERATED_COLUMNS = {"id", "dedup_key"};
+    private static final String MERGE_PREFIX = "MERGE INTO study_session_events t USING (VALUES ";
+    private static final String ROW_PLACEHOLDER = "(CAST(? AS BIGINT), CAST(? AS VARCHAR(255)), "
+            + "CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS INTEGER), CAST(? AS DOUBLE PRECISION), "
+            + "CAST(? AS TIMESTAMP(6) WITH TIME ZONE), CAST(? AS TIMESTAMP(6) WITH TIME ZONE), "
+            + "CAST(? AS DOUBLE PRECISION), CAST(? AS INTEGER), CAST(? AS CHARACTER LARGE OBJECT), CAST(? AS TIMESTAMP(6) WITH TIME ZONE), CAST(? AS VARCHAR(64)))";
+    private static final String COLUMNS = "student_id, device_id, category, course_name, duration_minutes, "
+            + "engagement_score, start_time, end_time, focus_level, interruptions, metadata_json, received_at, dedup_key";
+    private static final String MERGE_SUFFIX = ") AS v (" + COLUMNS + ") "
+            + "ON t.dedup_key = v.dedup_key "
+            + "WHEN NOT MATCHED THEN INSERT (" + COLUMNS + ") VALUES (v.student_id, v.device_id, v.category, "
+            + "v.course_name, v.duration_minutes, v.engagement_score, v.start_time, v.end_time, v.focus_level, "
+            + "v.interruptions, v.metadata_json, v.received_at, v.dedup_key)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Grava os eventos numa transação: se um comando falhar (ex.: valor maior que a
+     * coluna), nenhum evento da lista fica gravado e quem chamou pode refazer linha a linha.
+     *
+     * @return os eventos de fato inseridos, com o {@code id} gerado; os que ficaram
+     *         de fora já estavam gravados
+     */
+    @Transactional
+    public List<StudySessionEvent> insertAll(List<StudySessionEvent> events) {
+        List<StudySessionEvent> inserted = new ArrayList<>(events.size());
+        for (int from = 0; from < events.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<StudySessionEvent> chunk = events.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, events.size()));
+            try {
+                merge(chunk, inserted);
+            } catch (DuplicateKeyException e) {
+                // Chave repetida dentro do próprio lote ou insert concorrente de outra réplica: refaz um a um
+                insertOneByOne(chunk, inserted);
+            }
+        }
+        return inserted;
+    }
+
+    private void insertOneByOne(List<StudySessionEvent> events, List<StudySessionEvent> inserted) {
+        for (StudySessionEvent event : events) {
+            try {
+                merge(List.of(event), inserted);
+            } catch (DuplicateKeyException duplicate) {
+                // Já gravado
+            }
+        }
+    }
+
+    private void merge(List<StudySessionEvent> chunk, List<StudySessionEvent> inserted) {
+        String sql = buildMerge(chunk.size());
+        Object[] args = toArgs(chunk);
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, GENERATED_COLUMNS);
+            new ArgumentPreparedStatementSetter(args).setValues(statement);
+            return statement;
+        }, keys);
+
+        // As chaves vêm só das linhas inseridas, na ordem do VALUES; as puladas pelo MERGE
+        // não aparecem, então basta casar as dedup_key em sequência
+        Iterator<Map<String, Object>> rows = keys.getKeyList().iterator();
+        Map<String, Object> row = rows.hasNext() ? rows.next() : null;
+        for (StudySessionEvent event : chunk) {
+            if (row != null && Objects.equals(event.getDedupKey(), row.get("dedup_key"))) {
+                event.setId(((Number) row.get("id")).longValue());
+                inserted.add(event);
+                row = rows.hasNext() ? rows.next() : null;
+            }
+        }
+    }
+
+    private String buildMerge(int rows) {
+        StringBuilder sql = new StringBuilder(MERGE_PREFIX.length() + MERGE_SUFFIX.length()
+                + rows * (ROW_PLACEHOLDER.length() + 2));
+        sql.append(MERGE_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.append(MERGE_SUFFIX).toString();
+    }
+
+    private Object[] toArgs(List<StudySessionEvent> events) {
+        List<Object> args = new ArrayList<>(events.size() * 13);
+        for (StudySessionEvent event : events) {
+            args.add(event.getStudentId());
+            args.add(event.getDeviceId());
+            args.add(event.getCategory());
+            args.add(event.getCourseName());
+            args.add(event.getDurationMinutes());
+            args.add(event.getEngagementScore());
+            args.add(event.getStartTime());
+            args.add(event.getEndTime());
+            args.add(event.getFocusLevel());
+            args.add(event.getInterruptions());
+            args.add(event.getMetadataJson());
+            args.add(event.getReceivedAt());
+            args.add(event.getDedupKey());
+        }
+        return args.toArray();
+    }
+}
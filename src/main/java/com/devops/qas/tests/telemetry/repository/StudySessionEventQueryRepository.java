@@ -0,0 +1,123 @@
+package com.devops.qas.tests.telemetry.repository;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.TelemetryEventFilter;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.StringUtils;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Consultas de telemetria paginadas por keyset (received_at, id): cada página
+ * custa O(limit) independentemente da profundidade do histórico.
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class StudySessionEventQueryRepository {
+
+    private static final String COLUMNS = "id, student_id, device_id, category, course_name, "
+            + "duration_minutes, engagement_score, start_time, end_time, focus_level, interruptions, received_at";
+    private static final String SELECT_COLUMNS = "SELECT " + COLUMNS + ", metadata_json FROM study_session_events";
+    private static final String SELECT_COLUMNS_WITHOUT_METADATA = "SELECT " + COLUMNS + " FROM study_session_events";
+
+    private static final RowMapper<StudySessionEvent> ROW_MAPPER = (rs, rowNum) -> {
+        StudySessionEvent event = mapColumns(rs);
+        event.setMetadataJson(rs.getString("metadata_json"));
+        return event;
+    };
+    private static final RowMapper<StudySessionEvent> ROW_MAPPER_WITHOUT_METADATA = (rs, rowNum) -> mapColumns(rs);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<StudySessionEvent> findPage(TelemetryEventFilter filter) {
+        StringBuilder sql = new StringBuilder(filter.isIncludeMetadata() ? SELECT_COLUMNS : SELECT_COLUMNS_WITHOUT_METADATA)
+                .append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+
+        if (filter.getStudentId() != null) {
+            sql.append(" AND student_id = ?");
+            args.add(filter.getStudentId());
+        }
+        if (StringUtils.hasText(filter.getCategory())) {
+            sql.append(" AND category_lower = LOWER(?)");
+            args.add(filter.getCategory());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" AND received_at >= ?");
+            args.add(filter.getFrom());
+        }
+        if (filter.getTo() != null) {
+            sql.append(" AND received_at < ?");
+            args.add(filter.getTo());
+        }
+        if (filter.getAfter() != null) {
+            // O "received_at <= ?" redundante vira limite do intervalo no índice; só com o OR o
+            // H2 percorre o índice desde o topo e filtra linha a linha
+            sql.append(" AND received_at <= ? AND (received_at < ? OR (received_at = ? AND id < ?))");
+            args.add(filter.getAfter().getReceivedAt());
+            args.add(filter.getAfter().getReceivedAt());
+            args.add(filter.getAfter().getReceivedAt());
+            args.add(filter.getAfter().getId());
+        }
+        // A coluna filtrada por igualdade entra no ORDER BY (sem mudar a ordem) para que
+        // o H2 percorra o índice (coluna, received_at DESC, id DESC) já ordenado.
+        sql.append(" ORDER BY ");
+        if (filter.getStudentId() != null) {
+            sql.append("student_id, ");
+        } else if (StringUtils.hasText(filter.getCategory())) {
+            sql.append("category_lower, ");
+        }
+        sql.append("received_at DESC, id DESC LIMIT ?");
+        args.add(filter.getLimit());
+
+        return jdbcTemplate.query(sql.toString(),
+                filter.isIncludeMetadata() ? ROW_MAPPER : ROW_MAPPER_WITHOUT_METADATA, args.toArray());
+    }
+
+    /**
+     * Percorre os eventos de [from, to) com um cursor somente para frente, trazendo
+     * {@code fetchSize} linhas por vez. A ordem é a do índice de received_at (mais
+     * recentes primeiro), para o H2 não ordenar o intervalo inteiro antes da primeira linha.
+     */
+    public void forEachInRange(OffsetDateTime from, OffsetDateTime to, int fetchSize,
+                               Consumer<StudySessionEvent> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_COLUMNS
+                            + " WHERE received_at >= ? AND received_at < ? ORDER BY received_at DESC, id DESC",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setObject(1, from);
+            statement.setObject(2, to);
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(ROW_MAPPER.mapRow(rs, rs.getRow())));
+    }
+
+    private static StudySessionEvent mapColumns(ResultSet rs) throws SQLException {
+        return StudySessionEvent.builder()
+                .id(rs.getLong("id"))
+                .studentId(rs.getObject("student_id", Long.class))
+                .deviceId(rs.getString("device_id"))
+                .category(rs.getString("category"))
+                .courseName(rs.getString("course_name"))
+                .durationMinutes(rs.getObject("duration_minutes", Integer.class))
+                .engagementScore(rs.getObject("engagement_score", Double.class))
+                .startTime(rs.getObject("start_time", OffsetDateTime.class))
+                .endTime(rs.getObject("end_time", OffsetDateTime.class))
+                .focusLevel(rs.getObject("focus_level", Double.class))
+                .interruptions(rs.getObject("interruptions", Integer.class))
+                .receivedAt(rs.getObject("received_at", OffsetDateTime.class))
+                .build();
+    }
+}
@@ -4,15 +4,10 @@ import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface StudySessionEventRepository extends JpaRepository<StudySessionEvent, Long> {
 
-    List<StudySessionEvent> findTop50ByOrderByReceivedAtDesc();
-
-    List<StudySessionEvent> findByStudentIdOrderByReceivedAtDesc(Long studentId);
-
-    List<StudySessionEvent> findByCategoryIgnoreCaseOrderByReceivedAtDesc(String category);
+    Optional<StudySessionEvent> findByDedupKey(String dedupKey);
 }
-
@@ -0,0 +1,154 @@
+package com.devops.qas.tests.telemetry.repository;
+
+import com.devops.qas.tests.telemetry.dto.DailyEngagementDTO;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Resumos diários da telemetria e a limpeza dos eventos brutos já resumidos. Cada
+ * evento bruto entra nos resumos uma vez ({@code rolled_up}); as consultas somam os
+ * resumos e os eventos brutos ainda não resumidos.
+ */
+@Repository
+@RequiredArgsConstructor
+@Timed("jdbc.repository.invocations")
+public class StudySessionRollupRepository {
+
+    private static final int STATE_ID = 1;
+    private static final String SUMS = "COUNT(*) AS sessions, "
+            + "COALESCE(SUM(duration_minutes), 0) AS total_duration_minutes, "
+            + "COALESCE(SUM(engagement_score), 0) AS engagement_sum, COUNT(engagement_score) AS engagement_count, "
+            + "COALESCE(SUM(focus_level), 0) AS focus_level_sum, COUNT(focus_level) AS focus_level_count, "
+            + "COALESCE(SUM(interruptions), 0) AS interruptions";
+    private static final String UTC_DAY = "CAST(received_at AT TIME ZONE 'UTC' AS DATE)";
+    private static final String INSERT_ROLLUPS = "INSERT INTO study_session_daily_rollups (rollup_day, student_id, "
+            + "category, sessions, total_duration_minutes, engagement_sum, engagement_count, focus_level_sum, "
+            + "focus_level_count, interruptions) ";
+    // O UPDATE marca e devolve as mesmas linhas que são somadas: um evento gravado durante o
+    // comando fica para a próxima execução, sem ser contado duas vezes nem se perder
+    private static final String MARK_ROLLED_UP = "FINAL TABLE (UPDATE study_session_events SET rolled_up = TRUE "
+            + "WHERE rolled_up = FALSE AND ";
+    private static final String ROLL_UP_DAY = INSERT_ROLLUPS + "SELECT CAST(? AS DATE), student_id, category, " + SUMS
+            + " FROM " + MARK_ROLLED_UP + "received_at >= ? AND received_at < ?) GROUP BY student_id, category";
+    private static final String ROLL_UP_LATE = INSERT_ROLLUPS + "SELECT " + UTC_DAY + ", student_id, category, " + SUMS
+            + " FROM " + MARK_ROLLED_UP + "received_at < ?) GROUP BY " + UTC_DAY + ", student_id, category";
+
+    private static final RowMapper<DailyEngagementDTO> DAILY_MAPPER = (rs, rowNum) -> {
+        long engagementCount = rs.getLong("engagement_count");
+        long focusLevelCount = rs.getLong("focus_level_count");
+        return DailyEngagementDTO.builder()
+                .day(rs.getObject("rollup_day", LocalDate.class))
+                .category(rs.getString("category"))
+                .sessions(rs.getLong("sessions"))
+                .totalDurationMinutes(rs.getLong("total_duration_minutes"))
+                .averageEngagement(engagementCount > 0 ? rs.getDouble("engagement_sum") / engagementCount : null)
+                .averageFocusLevel(focusLevelCount > 0 ? rs.getDouble("focus_level_sum") / focusLevelCount : null)
+                .interruptions(rs.getLong("interruptions"))
+                .build();
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Primeiro dia (UTC) ainda não resumido; vazio se nenhum dia foi resumido. */
+    public Optional<LocalDate> findRolledUpUntil() {
+        return jdbcTemplate.query("SELECT rolled_up_until FROM telemetry_rollup_state WHERE id = ?",
+                (rs, rowNum) -> rs.getObject(1, LocalDate.class), STATE_ID).stream().findFirst();
+    }
+
+    public Optional<OffsetDateTime> findOldestReceivedAt() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(received_at) FROM study_session_events", OffsetDateTime.class));
+    }
+
+    /**
+     * Resume os eventos do dia por aluno e categoria e avança {@code rolled_up_until}
+     * na mesma transação, para que o dia não seja contado duas vezes.
+     *
+     * @return quantas linhas de resumo foram criadas
+     */
+    @Transactional
+    public int rollUpDay(LocalDate day) {
+        int rows = jdbcTemplate.update(ROLL_UP_DAY, Date.valueOf(day), startOf(day), startOf(day.plusDays(1)));
+        jdbcTemplate.update("MERGE INTO telemetry_rollup_state (id, rolled_up_until) KEY (id) VALUES (?, ?)",
+                STATE_ID, Date.valueOf(day.plusDays(1)));
+        return rows;
+    }
+
+    /**
+     * Soma aos resumos os eventos gravados depois que seu dia foi resumido
+     * ({@code receivedAt} antigo vindo do cliente), antes de {@code until}.
+     *
+     * @return quantas linhas de resumo foram criadas
+     */
+    public int rollUpLate(LocalDate until) {
+        return jdbcTemplate.update(ROLL_UP_LATE, startOf(until));
+    }
+
+    /**
+     * Apaga até {@code limit} eventos brutos recebidos antes de {@code cutoff}; em
+     * lotes para não segurar uma transação longa sobre a tabela.
+     */
+    public int deleteRawBefore(OffsetDateTime cutoff, int limit) {
+        return jdbcTemplate.update(
+                "DELETE FROM study_session_events WHERE received_at < ? FETCH FIRST ? ROWS ONLY", cutoff, limit);
+    }
+
+    /**
+     * Engajamento por dia (UTC) e categoria em [{@code from}, {@code to}), somando os
+     * resumos e os eventos brutos ainda não resumidos (o dia corrente e os atrasados).
+     */
+    public List<DailyEngagementDTO> findDaily(Long studentId, String category, LocalDate from, LocalDate to) {
+        StringBuilder filters = new StringBuilder();
+        List<Object> filterArgs = new ArrayList<>();
+        if (studentId != null) {
+            filters.append(" AND student_id = ?");
+            filterArgs.add(studentId);
+        }
+        if (StringUtils.hasText(category)) {
+            filters.append(" AND category_lower = LOWER(?)");
+            filterArgs.add(category);
+        }
+
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(Date.valueOf(from));
+        args.add(Date.valueOf(to));
+        args.addAll(filterArgs);
+        args.add(startOf(from));
+        args.add(startOf(to));
+        args.addAll(filterArgs);
+
+        String sql = "SELECT rollup_day, category, SUM(sessions) AS sessions, "
+                + "SUM(total_duration_minutes) AS total_duration_minutes, SUM(engagement_sum) AS engagement_sum, "
+                + "SUM(engagement_count) AS engagement_count, SUM(focus_level_sum) AS focus_level_sum, "
+                + "SUM(focus_level_count) AS focus_level_count, SUM(interruptions) AS interruptions FROM ("
+                + "SELECT rollup_day, category, sessions, total_duration_minutes, engagement_sum, engagement_count, "
+                + "focus_level_sum, focus_level_count, interruptions FROM study_session_daily_rollups "
+                + "WHERE rollup_day >= ? AND rollup_day < ?" + filters
+                + " UNION ALL SELECT " + UTC_DAY + " AS rollup_day, category, " + SUMS + " FROM study_session_events "
+                + "WHERE rolled_up = FALSE AND received_at >= ? AND received_at < ?" + filters
+                + " GROUP BY " + UTC_DAY + ", category"
+                + ") d GROUP BY rollup_day, category ORDER BY rollup_day, category";
+        return jdbcTemplate.query(sql, DAILY_MAPPER, args.toArray());
+    }
+
+    private static OffsetDateTime startOf(LocalDate day) {
+        return day.atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+}
@@ -0,0 +1,364 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventQueryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Exportação dos eventos de telemetria em Arrow IPC (formato stream), para análise
+ * offline sem paginar a API JSON. Os eventos são lidos por um cursor do banco e
+ * escritos em lotes de {@code batch-rows} linhas que reaproveitam os mesmos buffers,
+ * então a memória por exportação não depende do tamanho do intervalo.
+ */
+@Service
+@Slf4j
+public class TelemetryArrowExporter {
+
+    public static final String MEDIA_TYPE = "application/vnd.apache.arrow.stream";
+    public static final String FILE_EXTENSION = ".arrows";
+
+    private static final String FILE_PREFIX = "study_session_events-";
+    private static final String UTC = "UTC";
+    private static final Schema SCHEMA = new Schema(List.of(
+            Field.notNullable("id", new ArrowType.Int(64, true)),
+            Field.nullable("student_id", new ArrowType.Int(64, true)),
+            Field.nullable("device_id", ArrowType.Utf8.INSTANCE),
+            Field.nullable("category", ArrowType.Utf8.INSTANCE),
+            Field.nullable("course_name", ArrowType.Utf8.INSTANCE),
+            Field.nullable("duration_minutes", new ArrowType.Int(32, true)),
+            Field.nullable("engagement_score", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+            Field.nullable("focus_level", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+            Field.nullable("interruptions", new ArrowType.Int(32, true)),
+            Field.nullable("start_time", new ArrowType.Timestamp(TimeUnit.MICROSECOND, UTC)),
+            Field.nullable("end_time", new ArrowType.Timestamp(TimeUnit.MICROSECOND, UTC)),
+            Field.nullable("received_at", new ArrowType.Timestamp(TimeUnit.MICROSECOND, UTC)),
+            Field.nullable("metadata_json", ArrowType.Utf8.INSTANCE)));
+
+    private final StudySessionEventQueryRepository queryRepository;
+    private final boolean scheduledEnabled;
+    private final Path directory;
+    private final int batchRows;
+    private final int fetchSize;
+    private final long maxBytesPerExport;
+    private final Semaphore permits;
+    private final BufferAllocator allocator;
+    private final Counter httpRows;
+    private final Counter fileRows;
+
+    public TelemetryArrowExporter(
+            StudySessionEventQueryRepository queryRepository,
+            MeterRegistry meterRegistry,
+            @Value("${telemetry.export.scheduled.enabled:false}") boolean scheduledEnabled,
+            @Value("${telemetry.export.dir:data/telemetry-export}") String directory,
+            @Value("${telemetry.export.batch-rows:4096}") int batchRows,
+            @Value("${telemetry.export.fetch-size:1000}") int fetchSize,
+            @Value("${telemetry.export.max-memory-mb:64}") int maxMemoryMb,
+            @Value("${telemetry.export.max-concurrent:2}") int maxConcurrent) {
+        this.queryRepository = queryRepository;
+        this.scheduledEnabled = scheduledEnabled;
+        this.directory = Path.of(directory);
+        this.batchRows = batchRows;
+        this.fetchSize = fetchSize;
+        this.maxBytesPerExport = (long) maxMemoryMb * 1024 * 1024;
+        this.permits = new Semaphore(maxConcurrent);
+        this.allocator = new RootAllocator(maxBytesPerExport * maxConcurrent);
+        this.httpRows = meterRegistry.counter("telemetry.export.rows", "target", "http");
+        this.fileRows = meterRegistry.counter("telemetry.export.rows", "target", "file");
+    }
+
+    @PreDestroy
+    public void stop() {
+        allocator.close();
+    }
+
+    /**
+     * Reserva uma das {@code max-concurrent} vagas de exportação; chamar antes de
+     * começar a resposta HTTP, para ainda poder responder 503, e liberar com {@link #release()}.
+     *
+     * @throws TelemetryExportBusyException se todas as vagas estiverem em uso
+     */
+    public void acquire() {
+        if (!permits.tryAcquire()) {
+            throw new TelemetryExportBusyException("Limite de exportações de telemetria simultâneas atingido");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Escreve em {@code out} os eventos recebidos em [from, to), mais recentes primeiro.
+     * Deve ser chamado com uma vaga reservada por {@link #acquire()}; não fecha {@code out}.
+     *
+     * @return quantos eventos foram exportados
+     */
+    public long export(OffsetDateTime from, OffsetDateTime to, OutputStream out) throws IOException {
+        long rows = write(from, to, out);
+        httpRows.increment(rows);
+        return rows;
+    }
+
+    /** Exporta para {@code telemetry.export.dir} os dias UTC fechados que ainda não têm arquivo. */
+    @Scheduled(cron = "${telemetry.export.cron:0 0 1 * * *}", zone = "UTC")
+    public void scheduledExport() {
+        if (!scheduledEnabled) {
+            return;
+        }
+        try {
+            exportMissingDays(LocalDate.now(ZoneOffset.UTC));
+        } catch (IOException | RuntimeException e) {
+            log.error("Falha na exportação agendada de telemetria: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Exporta do dia seguinte ao último arquivo até ontem, para que disparos perdidos
+     * (aplicação fora do ar, falha) não deixem buracos; sem arquivos, só ontem. Para
+     * no primeiro dia com falha, que é refeito no próximo disparo.
+     */
+    void exportMissingDays(LocalDate today) throws IOException {
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate day = lastExportedDay().map(last -> last.plusDays(1)).orElse(yesterday);
+        for (; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            exportDay(day);
+        }
+    }
+
+    private Optional<LocalDate> lastExportedDay() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_EXTENSION))
+                    .flatMap(name -> parseDay(name.substring(FILE_PREFIX.length(),
+                            name.length() - FILE_EXTENSION.length())))
+                    .max(Comparator.naturalOrder());
+        }
+    }
+
+    private static Stream<LocalDate> parseDay(String value) {
+        try {
+            return Stream.of(LocalDate.parse(value));
+        } catch (DateTimeParseException e) {
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Escreve o dia num arquivo temporário e o renomeia ao final, para que leitores
+     * nunca vejam um arquivo pela metade. Não sobrescreve um dia já exportado.
+     *
+     * @return o arquivo do dia
+     */
+    public Path exportDay(LocalDate day) throws IOException {
+        Path target = directory.resolve(FILE_PREFIX + day + FILE_EXTENSION);
+        if (Files.exists(target)) {
+            log.info("Exportação de telemetria de {} já existe em {}", day, target);
+            return target;
+        }
+        Files.createDirectories(directory);
+        Path partial = directory.resolve(target.getFileName() + ".partial");
+        acquireBlocking();
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+            long rows = write(day.atStartOfDay().atOffset(ZoneOffset.UTC),
+                    day.plusDays(1).atStartOfDay().atOffset(ZoneOffset.UTC), out);
+            fileRows.increment(rows);
+            log.info("Telemetria de {} exportada: {} eventos em {}", day, rows, target);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        } finally {
+            permits.release();
+        }
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private void acquireBlocking() throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Exportação de telemetria interrompida", e);
+        }
+    }
+
+    private long write(OffsetDateTime from, OffsetDateTime to, OutputStream out) throws IOException {
+        try (BufferAllocator exportAllocator = allocator.newChildAllocator("telemetry-export", 0, maxBytesPerExport);
+             VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, exportAllocator)) {
+            // O writer não é fechado: o close() escreveria o fim do stream mesmo após uma
+            // falha, e um export truncado pareceria completo
+            ArrowStreamWriter writer = new ArrowStreamWriter(root, null, Channels.newChannel(out));
+            writer.start();
+            BatchWriter batch = new BatchWriter(root, writer);
+            try {
+                queryRepository.forEachInRange(from, to, fetchSize, batch::add);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            batch.flush();
+            writer.end();
+            out.flush();
+            return batch.total;
+        }
+    }
+
+    /** Preenche os vetores linha a linha e grava um record batch a cada {@code batchRows}. */
+    private final class BatchWriter {
+        private final VectorSchemaRoot root;
+        private final ArrowStreamWriter writer;
+        private final BigIntVector id;
+        private final BigIntVector studentId;
+        private final VarCharVector deviceId;
+        private final VarCharVector category;
+        private final VarCharVector courseName;
+        private final IntVector durationMinutes;
+        private final Float8Vector engagementScore;
+        private final Float8Vector focusLevel;
+        private final IntVector interruptions;
+        private final TimeStampMicroTZVector startTime;
+        private final TimeStampMicroTZVector endTime;
+        private final TimeStampMicroTZVector receivedAt;
+        private final VarCharVector metadataJson;
+        private int rows;
+        private long total;
+
+        private BatchWriter(VectorSchemaRoot root, ArrowStreamWriter writer) {
+            this.root = root;
+            this.writer = writer;
+            this.id = (BigIntVector) root.getVector("id");
+            this.studentId = (BigIntVector) root.getVector("student_id");
+            this.deviceId = (VarCharVector) root.getVector("device_id");
+            this.category = (VarCharVector) root.getVector("category");
+            this.courseName = (VarCharVector) root.getVector("course_name");
+            this.durationMinutes = (IntVector) root.getVector("duration_minutes");
+            this.engagementScore = (Float8Vector) root.getVector("engagement_score");
+            this.focusLevel = (Float8Vector) root.getVector("focus_level");
+            this.interruptions = (IntVector) root.getVector("interruptions");
+            this.startTime = (TimeStampMicroTZVector) root.getVector("start_time");
+            this.endTime = (TimeStampMicroTZVector) root.getVector("end_time");
+            this.receivedAt = (TimeStampMicroTZVector) root.getVector("received_at");
+            this.metadataJson = (VarCharVector) root.getVector("metadata_json");
+            root.allocateNew();
+        }
+
+        private void add(StudySessionEvent event) {
+            id.setSafe(rows, event.getId());
+            setLong(studentId, event.getStudentId());
+            setText(deviceId, event.getDeviceId());
+            setText(category, event.getCategory());
+            setText(courseName, event.getCourseName());
+            setInt(durationMinutes, event.getDurationMinutes());
+            setDouble(engagementScore, event.getEngagementScore());
+            setDouble(focusLevel, event.getFocusLevel());
+            setInt(interruptions, event.getInterruptions());
+            setTimestamp(startTime, event.getStartTime());
+            setTimestamp(endTime, event.getEndTime());
+            setTimestamp(receivedAt, event.getReceivedAt());
+            setText(metadataJson, event.getMetadataJson());
+            rows++;
+            total++;
+            if (rows == batchRows) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void flush() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            root.setRowCount(rows);
+            writer.writeBatch();
+            // Mesmos buffers para o próximo lote; o allocateNew zera e realoca
+            rows = 0;
+            root.allocateNew();
+        }
+
+        private void setLong(BigIntVector vector, Long value) {
+            if (value == null) {
+                vector.setNull(rows);
+            } else {
+                vector.setSafe(rows, value);
+            }
+        }
+
+        private void setInt(IntVector vector, Integer value) {
+            if (value == null) {
+                vector.setNull(rows);
+            } else {
+                vector.setSafe(rows, value);
+            }
+        }
+
+        private void setDouble(Float8Vector vector, Double value) {
+            if (value == null) {
+                vector.setNull(rows);
+            } else {
+                vector.setSafe(rows, value);
+            }
+        }
+
+        private void setText(VarCharVector vector, String value) {
+            if (value == null) {
+                vector.setNull(rows);
+            } else {
+                vector.setSafe(rows, value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        private void setTimestamp(TimeStampMicroTZVector vector, OffsetDateTime value) {
+            if (value == null) {
+                vector.setNull(rows);
+            } else {
+                vector.setSafe(rows, ChronoUnit.MICROS.between(Instant.EPOCH, value.toInstant()));
+            }
+        }
+    }
+}
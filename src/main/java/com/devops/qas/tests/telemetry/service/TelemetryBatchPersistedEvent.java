@@ -0,0 +1,23 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Publicado pelo {@link TelemetryIngestionPipeline} com os eventos de um lote que
+ * foram de fato inseridos (já com {@code id}), pelo {@link TelemetryBulkIngestService}
+ * a cada lote da ingestão em massa e pelo {@link TelemetryEventService} a cada
+ * evento novo recebido por HTTP.
+ * {@code persistedAtNanos} vem de {@link System#nanoTime()}, para medir latência
+ * dentro do mesmo processo.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TelemetryBatchPersistedEvent {
+
+    private final List<StudySessionEvent> events;
+    private final long persistedAtNanos;
+}
@@ -0,0 +1,208 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.BulkIngestResultDTO;
+import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventBatchRepository;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ingestão em massa de eventos de telemetria (NDJSON ou array JSON). O corpo é
+ * lido de forma incremental e os eventos válidos são gravados em lotes JDBC,
+ * de modo que a requisição nunca é materializada inteira em memória. Cada lote
+ * gravado é anunciado com {@link TelemetryBatchPersistedEvent}, como os do MQTT.
+ */
+@Service
+@Slf4j
+public class TelemetryBulkIngestService {
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final TelemetryEventService telemetryEventService;
+    private final StudySessionEventBatchRepository batchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+    private final int batchSize;
+
+    public TelemetryBulkIngestService(
+            TelemetryEventService telemetryEventService,
+            StudySessionEventBatchRepository batchRepository,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            @Value("${telemetry.bulk.batch-size:1000}") int batchSize) {
+        this.telemetryEventService = telemetryEventService;
+        this.batchRepository = batchRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(StudySessionEventDTO.class);
+        this.batchSize = batchSize;
+    }
+
+    public BulkIngestResultDTO ingestNdjson(InputStream body) throws IOException {
+        BulkIngestion ingestion = new BulkIngestion();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ingestion.add(lineNumber, eventReader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    ingestion.reject(lineNumber, "JSON inválido: " + e.getOriginalMessage());
+                }
+            }
+        }
+        return ingestion.finish();
+    }
+
+    public BulkIngestResultDTO ingestJsonArray(InputStream body) throws IOException {
+        BulkIngestion ingestion = new BulkIngestion();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            JsonToken first = parser.nextToken();
+            if (first == JsonToken.START_OBJECT) {
+                ingestion.addTree(1, parser.readValueAsTree());
+                return ingestion.finish();
+            }
+            if (first != JsonToken.START_ARRAY) {
+                ingestion.reject(1, "Corpo deve ser um objeto ou array JSON");
+                return ingestion.finish();
+            }
+            long index = 0;
+            try {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    index++;
+                    ingestion.addTree(index, parser.readValueAsTree());
+                }
+            } catch (JsonProcessingException e) {
+                ingestion.truncate(index, "JSON malformado, processamento interrompido: " + e.getOriginalMessage());
+            }
+        }
+        return ingestion.finish();
+    }
+
+    private class BulkIngestion {
+        private final List<StudySessionEvent> pending = new ArrayList<>(batchSize);
+        private final List<Long> pendingPositions = new ArrayList<>(batchSize);
+        private final List<String> errors = new ArrayList<>();
+        private long accepted;
+        private long rejected;
+        private long duplicates;
+        private boolean truncated;
+
+        void addTree(long position, JsonNode node) {
+            if (node == null || !node.isObject()) {
+                reject(position, "Elemento não é um objeto JSON");
+                return;
+            }
+            try {
+                add(position, eventReader.treeToValue(node, StudySessionEventDTO.class));
+            } catch (JsonProcessingException e) {
+                reject(position, "Campos inválidos: " + e.getOriginalMessage());
+            }
+        }
+
+        void add(long position, StudySessionEventDTO dto) {
+            // Uma linha "null" é JSON válido e vira dto nulo
+            if (dto == null) {
+                reject(position, "Elemento não é um objeto JSON");
+                return;
+            }
+            if (dto.getStudentId() == null) {
+                reject(position, "studentId é obrigatório");
+                return;
+            }
+            pending.add(telemetryEventService.toEntity(dto));
+            pendingPositions.add(position);
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long position, String reason) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(position + ": " + reason);
+            }
+        }
+
+        void truncate(long position, String reason) {
+            truncated = true;
+            reject(position, reason);
+        }
+
+        BulkIngestResultDTO finish() {
+            flush();
+            log.info("Ingestão em massa concluída: {} aceitos ({} duplicados), {} rejeitados", accepted, duplicates, rejected);
+            return BulkIngestResultDTO.builder()
+                    .accepted(accepted)
+                    .rejected(rejected)
+                    .duplicates(duplicates)
+                    .truncated(truncated)
+                    .errors(errors)
+                    .build();
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                List<StudySessionEvent> inserted = batchRepository.insertAll(pending);
+                accepted += pending.size();
+                duplicates += pending.size() - inserted.size();
+                publish(inserted);
+            } catch (DataAccessException e) {
+                // O lote foi desfeito; linha a linha, só as linhas recusadas pelo banco viram erro
+                log.warn("Falha ao gravar lote da ingestão em massa, gravando linha a linha: {}",
+                        e.getMostSpecificCause().getMessage());
+                flushOneByOne();
+            }
+            pending.clear();
+            pendingPositions.clear();
+        }
+
+        private void flushOneByOne() {
+            List<StudySessionEvent> inserted = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                try {
+                    List<StudySessionEvent> row = batchRepository.insertAll(List.of(pending.get(i)));
+                    accepted++;
+                    duplicates += 1 - row.size();
+                    inserted.addAll(row);
+                } catch (DataAccessException e) {
+                    reject(pendingPositions.get(i), "Falha ao gravar: " + e.getMostSpecificCause().getMessage());
+                }
+            }
+            publish(inserted);
+        }
+
+        // Como os lotes do MQTT: só as linhas inseridas chegam ao feed SSE e às janelas
+        private void publish(List<StudySessionEvent> inserted) {
+            if (!inserted.isEmpty()) {
+                eventPublisher.publishEvent(new TelemetryBatchPersistedEvent(inserted, System.nanoTime()));
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Filtro em memória das chaves de deduplicação vistas na última janela
+ * ({@code telemetry.dedup.window-minutes}). Reentregas do QoS 1 chegam em
+ * rajadas logo após reconexões, então a maioria é descartada aqui sem ida ao
+ * banco; o que escapar da janela (ou vier de outra réplica) é barrado pelo
+ * índice único {@code uk_sse_dedup_key}.
+ */
+@Component
+public class TelemetryDeduplicator {
+
+    private final Cache<String, Boolean> recentKeys;
+    private final Counter dropped;
+
+    public TelemetryDeduplicator(
+            MeterRegistry meterRegistry,
+            @Value("${telemetry.dedup.window-minutes:10}") long windowMinutes,
+            @Value("${telemetry.dedup.max-keys:200000}") long maxKeys) {
+        this.recentKeys = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .build();
+        this.dropped = meterRegistry.counter("telemetry.ingestion.duplicates", "stage", "memory");
+    }
+
+    /**
+     * @return false se a chave já foi vista na janela; eventos sem chave sempre passam
+     */
+    public boolean markIfNew(String dedupKey) {
+        if (dedupKey == null) {
+            return true;
+        }
+        boolean isNew = recentKeys.asMap().putIfAbsent(dedupKey, Boolean.TRUE) == null;
+        if (!isNew) {
+            dropped.increment();
+        }
+        return isNew;
+    }
+
+    /**
+     * Esquece a chave de um evento que não chegou a ser gravado (buffer cheio ou
+     * lote com falha), para que a reentrega do dispositivo não seja descartada.
+     */
+    public void unmark(String dedupKey) {
+        if (dedupKey != null) {
+            recentKeys.invalidate(dedupKey);
+        }
+    }
+
+    /**
+     * Chave natural do evento: o {@code eventId} do dispositivo ou, sem ele,
+     * (deviceId, studentId, startTime). Null quando faltam os campos.
+     */
+    public static String dedupKey(StudySessionEventDTO dto) {
+        if (!StringUtils.hasText(dto.getDeviceId())) {
+            return null;
+        }
+        if (StringUtils.hasText(dto.getEventId())) {
+            return sha256("event\u0000" + dto.getDeviceId() + '\u0000' + dto.getEventId());
+        }
+        if (dto.getStudentId() == null || dto.getStartTime() == null) {
+            return null;
+        }
+        return sha256("session\u0000" + dto.getDeviceId() + '\u0000' + dto.getStudentId()
+                + '\u0000' + dto.getStartTime().toInstant());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -2,66 +2,184 @@ package com.devops.qas.tests.telemetry.service;
 
 import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
 import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.devops.qas.tests.telemetry.dto.TelemetryCursor;
+import com.devops.qas.tests.telemetry.dto.TelemetryEventFilter;
+import com.devops.qas.tests.telemetry.dto.TelemetryEventPageDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventQueryRepository;
 import com.devops.qas.tests.telemetry.repository.StudySessionEventRepository;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TelemetryEventService {
 
+    private static final int LOGGED_PAYLOAD_PREFIX = 200;
+    static final String FOCUS_LEVEL = "focusLevel";
+    static final String INTERRUPTIONS = "interruptions";
+
     private final StudySessionEventRepository repository;
+    private final StudySessionEventQueryRepository queryRepository;
+    private final TelemetryIngestionPipeline ingestionPipeline;
+    private final TelemetryDeduplicator deduplicator;
+    private final ApplicationEventPublisher eventPublisher;
     private final ObjectMapper objectMapper;
+    private final ObjectReader eventReader;
+    private final ObjectReader cborEventReader;
+    private final ObjectReader metadataReader;
+
+    @Value("${telemetry.query.default-page-size:50}")
+    private int defaultPageSize = 50;
 
-    public void processIncomingPayload(String payload) {
+    @Value("${telemetry.query.max-page-size:500}")
+    private int maxPageSize = 500;
+
+    public TelemetryEventService(
+            StudySessionEventRepository repository,
+            StudySessionEventQueryRepository queryRepository,
+            TelemetryIngestionPipeline ingestionPipeline,
+            TelemetryDeduplicator deduplicator,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.queryRepository = queryRepository;
+        this.ingestionPipeline = ingestionPipeline;
+        this.deduplicator = deduplicator;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.eventReader = objectMapper.readerFor(StudySessionEventDTO.class);
+        // Mesmos módulos e configurações do mapper JSON da aplicação, só troca o formato
+        this.cborEventReader = objectMapper.copyWith(new CBORFactory()).readerFor(StudySessionEventDTO.class);
+        this.metadataReader = objectMapper.readerFor(new TypeReference<Map<String, Object>>() { });
+    }
+
+    /**
+     * Lê o payload direto dos bytes recebidos do broker, sem passar por String.
+     * Reentregas já vistas na janela do {@link TelemetryDeduplicator} são descartadas;
+     * a chave de um evento recusado pelo pipeline é liberada.
+     *
+     * @return false se o payload não pôde ser lido; eventos descartados por buffer
+     *         cheio são contabilizados pelo {@link TelemetryIngestionPipeline}
+     */
+    public boolean processIncomingPayload(byte[] payload, TelemetryPayloadFormat format) {
         try {
-            StudySessionEventDTO dto = objectMapper.readValue(payload, StudySessionEventDTO.class);
-            saveEvent(dto);
+            StudySessionEventDTO dto = (format == TelemetryPayloadFormat.CBOR ? cborEventReader : eventReader)
+                    .readValue(payload);
+            StudySessionEvent event = toEntity(dto);
+            if (deduplicator.markIfNew(event.getDedupKey()) && !ingestionPipeline.submit(event)) {
+                // Descartado: a reentrega precisa passar pelo filtro
+                deduplicator.unmark(event.getDedupKey());
+            }
+            return true;
         } catch (IOException e) {
-            log.error("Erro ao processar payload MQTT: {}", payload, e);
+            if (format == TelemetryPayloadFormat.CBOR) {
+                log.error("Erro ao processar payload MQTT CBOR ({} bytes)", payload.length, e);
+            } else {
+                log.error("Erro ao processar payload MQTT ({} bytes): {}", payload.length,
+                        new String(payload, 0, Math.min(payload.length, LOGGED_PAYLOAD_PREFIX), StandardCharsets.UTF_8), e);
+            }
+            return false;
         }
     }
 
-    public StudySessionEventDTO saveEvent(StudySessionEventDTO dto) {
-        StudySessionEvent entity = toEntity(dto, serializeMetadata(dto.getMetadata()));
-        StudySessionEvent saved = repository.save(entity);
-        return toDTO(saved);
+    public boolean processIncomingPayload(byte[] payload) {
+        return processIncomingPayload(payload, TelemetryPayloadFormat.JSON);
     }
 
-    public List<StudySessionEventDTO> getRecentEvents() {
-        return repository.findTop50ByOrderByReceivedAtDesc().stream()
-                .map(this::toDTO)
-                .collect(Collectors.toList());
+    public boolean processIncomingPayload(String payload) {
+        return processIncomingPayload(payload.getBytes(StandardCharsets.UTF_8));
     }
 
-    public List<StudySessionEventDTO> findByFilters(Long studentId, String category) {
-        if (studentId != null) {
-            return repository.findByStudentIdOrderByReceivedAtDesc(studentId).stream()
-                    .map(this::toDTO)
-                    .collect(Collectors.toList());
+    /**
+     * Idempotente pela chave de deduplicação: um reenvio devolve o evento já gravado.
+     * Só consulta o banco antes de gravar quando a chave já apareceu na janela.
+     * Só eventos novos são anunciados com {@link TelemetryBatchPersistedEvent}, como
+     * os lotes do MQTT.
+     */
+    public StudySessionEventDTO saveEvent(StudySessionEventDTO dto) {
+        StudySessionEvent entity = toEntity(dto);
+        String dedupKey = entity.getDedupKey();
+        if (!deduplicator.markIfNew(dedupKey)) {
+            Optional<StudySessionEvent> existing = repository.findByDedupKey(dedupKey);
+            if (existing.isPresent()) {
+                return toDTO(existing.get());
+            }
+            // Ainda no buffer do pipeline: grava e deixa o índice único decidir
+        }
+        StudySessionEvent saved;
+        try {
+            saved = repository.save(entity);
+        } catch (DataIntegrityViolationException e) {
+            if (dedupKey == null) {
+                throw e;
+            }
+            return repository.findByDedupKey(dedupKey).map(this::toDTO).orElseThrow(() -> e);
         }
-        if (StringUtils.hasText(category)) {
-            return repository.findByCategoryIgnoreCaseOrderByReceivedAtDesc(category).stream()
-                    .map(this::toDTO)
-                    .collect(Collectors.toList());
+        eventPublisher.publishEvent(new TelemetryBatchPersistedEvent(List.of(saved), System.nanoTime()));
+        return toDTO(saved);
+    }
+
+    public TelemetryEventPageDTO findPage(TelemetryEventFilter filter, Integer pageSize) {
+        int limit = pageSize == null ? defaultPageSize : Math.max(1, Math.min(pageSize, maxPageSize));
+        filter.setLimit(limit + 1);
+
+        List<StudySessionEvent> rows = queryRepository.findPage(filter);
+        boolean hasMore = rows.size() > limit;
+        List<StudySessionEvent> page = hasMore ? rows.subList(0, limit) : rows;
+
+        String nextCursor = null;
+        if (hasMore) {
+            StudySessionEvent last = page.get(page.size() - 1);
+            nextCursor = new TelemetryCursor(last.getReceivedAt(), last.getId()).encode();
         }
-        return getRecentEvents();
+        return TelemetryEventPageDTO.builder()
+                .events(page.stream().map(event -> toDTO(event, filter.isIncludeMetadata())).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .build();
     }
 
-    private StudySessionEvent toEntity(StudySessionEventDTO dto, String metadataJson) {
+    /**
+     * {@code focusLevel} e {@code interruptions} numéricos dentro de metadata são
+     * movidos para as colunas tipadas; o campo de mesmo nome no DTO tem precedência.
+     */
+    public StudySessionEvent toEntity(StudySessionEventDTO dto) {
+        Map<String, Object> metadata = dto.getMetadata();
+        Double focusLevel = dto.getFocusLevel();
+        Integer interruptions = dto.getInterruptions();
+        if (metadata != null && !metadata.isEmpty()) {
+            Double metadataFocusLevel = metadata.get(FOCUS_LEVEL) instanceof Number number ? number.doubleValue() : null;
+            Integer metadataInterruptions = asInteger(metadata.get(INTERRUPTIONS));
+            if (metadataFocusLevel != null || metadataInterruptions != null) {
+                metadata = new LinkedHashMap<>(metadata);
+                if (metadataFocusLevel != null) {
+                    metadata.remove(FOCUS_LEVEL);
+                    focusLevel = focusLevel != null ? focusLevel : metadataFocusLevel;
+                }
+                if (metadataInterruptions != null) {
+                    metadata.remove(INTERRUPTIONS);
+                    interruptions = interruptions != null ? interruptions : metadataInterruptions;
+                }
+            }
+        }
         return StudySessionEvent.builder()
                 .id(dto.getId())
                 .studentId(dto.getStudentId())
@@ -72,12 +190,23 @@ public class TelemetryEventService {
                 .engagementScore(dto.getEngagementScore())
                 .startTime(dto.getStartTime())
                 .endTime(dto.getEndTime())
-                .metadataJson(metadataJson)
+                .focusLevel(focusLevel)
+                .interruptions(interruptions)
+                .metadataJson(serializeMetadata(metadata))
                 .receivedAt(dto.getReceivedAt() != null ? dto.getReceivedAt() : OffsetDateTime.now())
+                .dedupKey(TelemetryDeduplicator.dedupKey(dto))
                 .build();
     }
 
-    private StudySessionEventDTO toDTO(StudySessionEvent entity) {
+    StudySessionEventDTO toDTO(StudySessionEvent entity) {
+        return toDTO(entity, true);
+    }
+
+    /**
+     * Sem metadata o JSON não é desserializado; os campos tipados vêm sempre. Com
+     * metadata, eles também são devolvidos dentro do mapa, como foram enviados.
+     */
+    StudySessionEventDTO toDTO(StudySessionEvent entity, boolean includeMetadata) {
         return StudySessionEventDTO.builder()
                 .id(entity.getId())
                 .studentId(entity.getStudentId())
@@ -88,7 +217,9 @@ public class TelemetryEventService {
                 .engagementScore(entity.getEngagementScore())
                 .startTime(entity.getStartTime())
                 .endTime(entity.getEndTime())
-                .metadata(deserializeMetadata(entity.getMetadataJson()))
+                .focusLevel(entity.getFocusLevel())
+                .interruptions(entity.getInterruptions())
+                .metadata(includeMetadata ? metadataOf(entity) : null)
                 .receivedAt(entity.getReceivedAt())
                 .build();
     }
@@ -105,14 +236,38 @@ public class TelemetryEventService {
         }
     }
 
-    @SuppressWarnings("unchecked")
+    private Map<String, Object> metadataOf(StudySessionEvent entity) {
+        Map<String, Object> metadata = deserializeMetadata(entity.getMetadataJson());
+        if (entity.getFocusLevel() == null && entity.getInterruptions() == null) {
+            return metadata;
+        }
+        Map<String, Object> merged = new LinkedHashMap<>(metadata);
+        if (entity.getFocusLevel() != null) {
+            merged.put(FOCUS_LEVEL, entity.getFocusLevel());
+        }
+        if (entity.getInterruptions() != null) {
+            merged.put(INTERRUPTIONS, entity.getInterruptions());
+        }
+        return merged;
+    }
+
+    // Só inteiros cabem na coluna; outros valores ficam em metadata
+    private static Integer asInteger(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).intValue();
+        }
+        if (value instanceof Long number && number >= Integer.MIN_VALUE && number <= Integer.MAX_VALUE) {
+            return number.intValue();
+        }
+        return null;
+    }
+
     private Map<String, Object> deserializeMetadata(String metadataJson) {
         if (!StringUtils.hasText(metadataJson)) {
             return Collections.emptyMap();
         }
         try {
-            JsonNode node = objectMapper.readTree(metadataJson);
-            return objectMapper.convertValue(node, Map.class);
+            return metadataReader.readValue(metadataJson);
         } catch (IOException e) {
             log.warn("Falha ao desserializar metadata JSON", e);
             return Collections.emptyMap();
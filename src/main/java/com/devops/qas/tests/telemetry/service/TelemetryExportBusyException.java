@@ -0,0 +1,16 @@
+package com.devops.qas.tests.telemetry.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Já há {@code telemetry.export.max-concurrent} exportações em andamento; o cliente
+ * deve tentar de novo mais tarde.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Limite de exportações de telemetria simultâneas atingido")
+public class TelemetryExportBusyException extends RuntimeException {
+
+    public TelemetryExportBusyException(String message) {
+        super(message);
+    }
+}
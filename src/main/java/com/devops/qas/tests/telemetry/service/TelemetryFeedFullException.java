@@ -0,0 +1,16 @@
+package com.devops.qas.tests.telemetry.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * O feed ao vivo já tem o máximo de assinantes ({@code telemetry.live.max-subscribers});
+ * o cliente deve tentar de novo mais tarde ou voltar a consultar a listagem.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "Limite de assinantes do feed de telemetria atingido")
+public class TelemetryFeedFullException extends RuntimeException {
+
+    public TelemetryFeedFullException(String message) {
+        super(message);
+    }
+}
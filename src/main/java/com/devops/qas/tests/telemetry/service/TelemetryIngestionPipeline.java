@@ -0,0 +1,263 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.IngestionStatsDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventBatchRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estágio assíncrono entre o canal MQTT e o banco: os eventos entram num buffer
+ * limitado e uma thread dedicada os grava em lotes (por tamanho ou intervalo).
+ * Quando o buffer enche, o produtor espera até {@code offer-timeout-ms} e,
+ * persistindo a falta de espaço, o evento é descartado e contabilizado. Um lote
+ * que falha ao gravar também é descartado; nos dois casos a chave do evento sai do
+ * {@link TelemetryDeduplicator} para que a reentrega do dispositivo seja aceita.
+ * Os eventos de fato inseridos em cada lote são anunciados com um
+ * {@link TelemetryBatchPersistedEvent}; os já existentes no banco (mesma
+ * {@code dedup_key}) contam como duplicados e não são anunciados.
+ *
+ * <p>Com {@code telemetry.spool.enabled} o buffer em memória dá lugar ao
+ * {@link TelemetrySpool}: o evento é aceito assim que vai para o disco e, se o
+ * banco falhar, o lote fica no spool e é regravado com backoff, sem perda.
+ */
+@Component
+@Slf4j
+public class TelemetryIngestionPipeline {
+
+    private static final long MAX_POLL_WAIT_MS = 100;
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private final StudySessionEventBatchRepository batchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TelemetryDeduplicator deduplicator;
+    private final TelemetrySpool spool;
+    private final BlockingQueue<StudySessionEvent> buffer;
+    private final int bufferCapacity;
+    private final int flushSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong overflowed = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final Timer persistTimer;
+    private final Timer persistFailureTimer;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public TelemetryIngestionPipeline(
+            StudySessionEventBatchRepository batchRepository,
+            ApplicationEventPublisher eventPublisher,
+            TelemetryDeduplicator deduplicator,
+            MeterRegistry meterRegistry,
+            @Nullable TelemetrySpool spool,
+            @Value("${telemetry.ingestion.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${telemetry.ingestion.flush-size:500}") int flushSize,
+            @Value("${telemetry.ingestion.flush-interval-ms:200}") long flushIntervalMs,
+            @Value("${telemetry.ingestion.offer-timeout-ms:50}") long offerTimeoutMs) {
+        this.batchRepository = batchRepository;
+        this.eventPublisher = eventPublisher;
+        this.deduplicator = deduplicator;
+        this.spool = spool;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.bufferCapacity = bufferCapacity;
+        this.flushSize = flushSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+
+        this.persistTimer = meterRegistry.timer("telemetry.ingestion.persist", "outcome", "success");
+        this.persistFailureTimer = meterRegistry.timer("telemetry.ingestion.persist", "outcome", "error");
+        Gauge.builder("telemetry.ingestion.buffer.size", buffer, BlockingQueue::size).register(meterRegistry);
+        registerCounter(meterRegistry, "accepted", accepted);
+        registerCounter(meterRegistry, "overflowed", overflowed);
+        registerCounter(meterRegistry, "persisted", persisted);
+        registerCounter(meterRegistry, "duplicate", duplicates);
+        registerCounter(meterRegistry, "failed", failed);
+        FunctionCounter.builder("telemetry.ingestion.batches", batches, AtomicLong::get).register(meterRegistry);
+    }
+
+    private static void registerCounter(MeterRegistry meterRegistry, String state, AtomicLong counter) {
+        FunctionCounter.builder("telemetry.ingestion.events", counter, AtomicLong::get)
+                .tag("state", state)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(spool != null ? this::runSpoolDrainLoop : this::runFlushLoop, "telemetry-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(10));
+        }
+    }
+
+    public boolean submit(StudySessionEvent event) {
+        if (spool != null) {
+            if (spool.append(event)) {
+                accepted.incrementAndGet();
+                return true;
+            }
+            warnOverflow("Spool de telemetria cheio");
+            return false;
+        }
+        try {
+            if (buffer.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                accepted.incrementAndGet();
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        warnOverflow("Buffer de telemetria cheio (" + bufferCapacity + " eventos)");
+        return false;
+    }
+
+    private void warnOverflow(String reason) {
+        long total = overflowed.incrementAndGet();
+        if (total == 1 || total % 1000 == 0) {
+            log.warn("{}, {} eventos descartados até agora", reason, total);
+        }
+    }
+
+    public IngestionStatsDTO getStats() {
+        return IngestionStatsDTO.builder()
+                .bufferCapacity(bufferCapacity)
+                .bufferSize(buffer.size())
+                .accepted(accepted.get())
+                .overflowed(overflowed.get())
+                .persisted(persisted.get())
+                .duplicates(duplicates.get())
+                .failed(failed.get())
+                .batches(batches.get())
+                .spoolDepth(spool != null ? spool.depth() : 0)
+                .spoolLagMillis(spool != null ? spool.lagMillis() : 0)
+                .build();
+    }
+
+    private void runFlushLoop() {
+        List<StudySessionEvent> batch = new ArrayList<>(flushSize);
+        long deadline = System.currentTimeMillis() + flushIntervalMs;
+        while (running || !buffer.isEmpty()) {
+            try {
+                long waitMs = Math.min(MAX_POLL_WAIT_MS, Math.max(0, deadline - System.currentTimeMillis()));
+                StudySessionEvent event = buffer.poll(waitMs, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    buffer.drainTo(batch, flushSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (batch.size() >= flushSize || System.currentTimeMillis() >= deadline) {
+                flush(batch);
+                deadline = System.currentTimeMillis() + flushIntervalMs;
+            }
+        }
+        buffer.drainTo(batch);
+        flush(batch);
+    }
+
+    /**
+     * Lê lotes do spool e só avança o checkpoint depois da gravação. Na falha, o
+     * mesmo lote é tentado de novo com backoff exponencial. Ao parar, o que restar
+     * fica no spool para a próxima inicialização.
+     */
+    private void runSpoolDrainLoop() {
+        long backoffMs = 0;
+        while (running) {
+            try {
+                TelemetrySpool.Batch batch = spool.poll(flushSize, flushIntervalMs);
+                spool.force();
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                if (batch.getEvents().isEmpty() || persist(batch.getEvents())) {
+                    spool.commit(batch);
+                    backoffMs = 0;
+                } else {
+                    backoffMs = Math.min(MAX_RETRY_BACKOFF_MS, Math.max(flushIntervalMs, backoffMs * 2));
+                    sleepWhileRunning(backoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                log.error("Falha ao gravar o checkpoint do spool de telemetria", e);
+            }
+        }
+    }
+
+    private void sleepWhileRunning(long millis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + millis;
+        while (running && System.currentTimeMillis() < deadline) {
+            Thread.sleep(Math.min(MAX_POLL_WAIT_MS, deadline - System.currentTimeMillis()));
+            spool.force();
+        }
+    }
+
+    void flush(List<StudySessionEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (!persist(batch)) {
+            failed.addAndGet(batch.size());
+            // Lote perdido: libera as chaves para que as reentregas sejam gravadas
+            for (StudySessionEvent event : batch) {
+                deduplicator.unmark(event.getDedupKey());
+            }
+        }
+        batch.clear();
+    }
+
+    private boolean persist(List<StudySessionEvent> batch) {
+        TelemetryBatchPersistedEvent persistedEvent;
+        long start = System.nanoTime();
+        try {
+            List<StudySessionEvent> inserted = batchRepository.insertAll(batch);
+            persistTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            // Duplicatas puladas pelo MERGE (reentregas, replay do spool) não são anunciadas
+            persistedEvent = inserted.isEmpty() ? null : new TelemetryBatchPersistedEvent(inserted, System.nanoTime());
+            persisted.addAndGet(inserted.size());
+            duplicates.addAndGet(batch.size() - inserted.size());
+            batches.incrementAndGet();
+        } catch (RuntimeException e) {
+            persistFailureTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.error("Falha ao gravar lote de {} eventos de telemetria", batch.size(), e);
+            return false;
+        }
+        if (persistedEvent != null) {
+            eventPublisher.publishEvent(persistedEvent);
+        }
+        return true;
+    }
+}
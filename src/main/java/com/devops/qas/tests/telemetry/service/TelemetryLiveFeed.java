@@ -0,0 +1,269 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Feed SSE dos eventos de telemetria gravados, no lugar do polling da listagem.
+ *
+ * <p>Cada lote é serializado uma vez e colocado na fila limitada de cada assinante
+ * cujo filtro combina; quem publica (a thread de gravação do pipeline ou a
+ * requisição HTTP) nunca espera por cliente. O envio roda num pool pequeno, uma
+ * tarefa por assinante com dados pendentes. Fila cheia descarta o evento para
+ * aquele assinante, que depois recebe um evento {@code dropped} com quantos
+ * perdeu, para saber que precisa reconciliar pela listagem.
+ *
+ * <p>O envio é bloqueante, então cada assinante tem no máximo um envio em curso;
+ * quem fica mais de {@code telemetry.live.send-timeout-ms} num envio é removido do
+ * feed e a conexão é encerrada assim que a escrita retorna, liberando a thread. A
+ * escrita travada em si é limitada pelo timeout de conexão do Tomcat.
+ */
+@Service
+@Slf4j
+public class TelemetryLiveFeed {
+
+    private final TelemetryEventService telemetryEventService;
+    private final ObjectWriter dtoWriter;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final int senderThreads;
+    private final long timeoutMs;
+    private final long sendTimeoutNanos;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter dropped;
+    private final Counter evicted;
+
+    private ThreadPoolTaskExecutor executor;
+
+    public TelemetryLiveFeed(
+            TelemetryEventService telemetryEventService,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${telemetry.live.max-subscribers:5000}") int maxSubscribers,
+            @Value("${telemetry.live.buffer-size:256}") int bufferSize,
+            @Value("${telemetry.live.sender-threads:4}") int senderThreads,
+            @Value("${telemetry.live.timeout-ms:1800000}") long timeoutMs,
+            @Value("${telemetry.live.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.telemetryEventService = telemetryEventService;
+        this.dtoWriter = objectMapper.writerFor(StudySessionEventDTO.class);
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.senderThreads = senderThreads;
+        this.timeoutMs = timeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.dropped = meterRegistry.counter("telemetry.live.dropped");
+        this.evicted = meterRegistry.counter("telemetry.live.evicted");
+        Gauge.builder("telemetry.live.subscribers", subscribers, Set::size)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        // Fila ilimitada de tarefas, mas no máximo uma por assinante (flag draining)
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(senderThreads);
+        executor.setMaxPoolSize(senderThreads);
+        executor.setThreadNamePrefix("telemetry-live-");
+        executor.initialize();
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        executor.shutdown();
+    }
+
+    /**
+     * @param studentId filtro opcional por aluno
+     * @param category  filtro opcional por categoria
+     * @throws TelemetryFeedFullException se o limite de assinantes foi atingido
+     */
+    public SseEmitter subscribe(Long studentId, String category) {
+        if (subscribers.size() >= maxSubscribers) {
+            log.warn("Limite de {} assinantes do feed de telemetria atingido", maxSubscribers);
+            throw new TelemetryFeedFullException("Limite de assinantes do feed de telemetria atingido");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, studentId, category, new ArrayBlockingQueue<>(bufferSize));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onBatchPersisted(TelemetryBatchPersistedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        for (StudySessionEvent persisted : event.getEvents()) {
+            String json = null;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.matches(persisted)) {
+                    continue;
+                }
+                if (json == null) {
+                    json = serialize(persisted);
+                    if (json == null) {
+                        break;
+                    }
+                }
+                if (!subscriber.queue.offer(json)) {
+                    subscriber.dropped.incrementAndGet();
+                    dropped.increment();
+                }
+            }
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    /** Comentário SSE periódico para proxies não fecharem a conexão e detectar clientes mortos. */
+    @Scheduled(fixedDelayString = "${telemetry.live.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.isStalled(System.nanoTime(), sendTimeoutNanos)) {
+            evict(subscriber);
+            return;
+        }
+        if (!subscriber.hasPending() || !subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> drain(subscriber));
+        } catch (TaskRejectedException e) {
+            // Encerrando; o assinante é completado no stop()
+            subscriber.draining.set(false);
+        }
+    }
+
+    /**
+     * Tira do feed um assinante preso num envio. O emitter não pode ser completado
+     * daqui (ficaria esperando o envio em curso); a thread que envia o completa.
+     */
+    private void evict(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.evicted = true;
+            subscriber.queue.clear();
+            evicted.increment();
+            log.debug("Assinante do feed de telemetria removido: envio acima de {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            do {
+                long lost = subscriber.dropped.getAndSet(0);
+                if (lost > 0) {
+                    send(subscriber, SseEmitter.event().name("dropped").data(lost));
+                }
+                String json;
+                while ((json = subscriber.queue.poll()) != null) {
+                    send(subscriber, SseEmitter.event().name("session").data(json));
+                }
+                if (subscriber.heartbeatDue) {
+                    subscriber.heartbeatDue = false;
+                    send(subscriber, SseEmitter.event().comment("heartbeat"));
+                }
+                subscriber.draining.set(false);
+                // Evento que chegou entre o último poll e a liberação da flag
+            } while (subscriber.hasPending() && subscriber.draining.compareAndSet(false, true));
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Assinante do feed de telemetria desconectado: {}", e.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        subscriber.sendStartedAt = System.nanoTime();
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+        if (subscriber.evicted) {
+            throw new IOException("Assinante removido por envio lento");
+        }
+    }
+
+    private String serialize(StudySessionEvent event) {
+        try {
+            return dtoWriter.writeValueAsString(telemetryEventService.toDTO(event));
+        } catch (JsonProcessingException e) {
+            log.warn("Falha ao serializar evento de telemetria para o feed", e);
+            return null;
+        }
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long studentId;
+        private final String category;
+        private final BlockingQueue<String> queue;
+        private final AtomicLong dropped = new AtomicLong();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile boolean evicted;
+        /** System.nanoTime() do início do envio em curso; 0 sem envio. */
+        private volatile long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, Long studentId, String category, BlockingQueue<String> queue) {
+            this.emitter = emitter;
+            this.studentId = studentId;
+            this.category = category;
+            this.queue = queue;
+        }
+
+        private boolean matches(StudySessionEvent event) {
+            return (studentId == null || studentId.equals(event.getStudentId()))
+                    && (category == null || category.equalsIgnoreCase(event.getCategory()));
+        }
+
+        private boolean hasPending() {
+            return !evicted && (!queue.isEmpty() || dropped.get() > 0 || heartbeatDue);
+        }
+
+        private boolean isStalled(long now, long sendTimeoutNanos) {
+            long startedAt = sendStartedAt;
+            return startedAt != 0 && now - startedAt > sendTimeoutNanos;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.devops.qas.tests.telemetry.service;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Codificação do {@code StudySessionEventDTO} recebido dos dispositivos. CBOR é o
+ * mesmo modelo do JSON em binário (sem aspas, números e datas em formato nativo),
+ * escolhido pelo sufixo {@code /cbor} do tópico MQTT ou pelo Content-Type
+ * {@code application/cbor} no HTTP.
+ */
+public enum TelemetryPayloadFormat {
+    JSON,
+    CBOR;
+
+    public static final String CBOR_TOPIC_SUFFIX = "/cbor";
+
+    public static TelemetryPayloadFormat fromTopic(String topic) {
+        return topic != null && topic.endsWith(CBOR_TOPIC_SUFFIX) ? CBOR : JSON;
+    }
+
+    public static TelemetryPayloadFormat fromContentType(MediaType contentType) {
+        return contentType != null && MediaType.APPLICATION_CBOR.isCompatibleWith(contentType) ? CBOR : JSON;
+    }
+}
@@ -0,0 +1,151 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.dto.DailyEngagementDTO;
+import com.devops.qas.tests.telemetry.dto.TelemetryRetentionResultDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionRollupRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Retenção da telemetria: cada dia (UTC) fechado é resumido por aluno e categoria
+ * em {@code study_session_daily_rollups} e, passados {@code raw-days} dias, os
+ * eventos brutos são apagados. Consultas diárias de períodos longos leem os resumos
+ * e, da tabela bruta, só os eventos ainda não resumidos.
+ *
+ * <p>O {@code receivedAt} vem do cliente, então um evento pode chegar num dia já
+ * resumido; ele é somado aos resumos na execução seguinte, antes da limpeza.
+ */
+@Service
+@Slf4j
+public class TelemetryRetentionService {
+
+    private final StudySessionRollupRepository rollupRepository;
+    private final boolean enabled;
+    private final int rawDays;
+    private final int deleteBatchSize;
+    private final Clock clock;
+    private final Counter rolledUpDays;
+    private final Counter deletedEvents;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public TelemetryRetentionService(
+            StudySessionRollupRepository rollupRepository,
+            MeterRegistry meterRegistry,
+            @Value("${telemetry.retention.enabled:true}") boolean enabled,
+            @Value("${telemetry.retention.raw-days:90}") int rawDays,
+            @Value("${telemetry.retention.delete-batch-size:10000}") int deleteBatchSize) {
+        this(rollupRepository, meterRegistry, enabled, rawDays, deleteBatchSize, Clock.systemUTC());
+    }
+
+    TelemetryRetentionService(StudySessionRollupRepository rollupRepository, MeterRegistry meterRegistry,
+                              boolean enabled, int rawDays, int deleteBatchSize, Clock clock) {
+        this.rollupRepository = rollupRepository;
+        this.enabled = enabled;
+        this.rawDays = rawDays;
+        this.deleteBatchSize = deleteBatchSize;
+        this.clock = clock;
+        this.rolledUpDays = meterRegistry.counter("telemetry.retention.rolled.up.days");
+        this.deletedEvents = meterRegistry.counter("telemetry.retention.deleted.events");
+    }
+
+    @Scheduled(cron = "${telemetry.retention.cron:0 30 3 * * *}", zone = "UTC")
+    public void scheduledRun() {
+        if (!enabled) {
+            return;
+        }
+        if (run().isEmpty()) {
+            log.warn("Retenção de telemetria ainda em execução, disparo agendado ignorado");
+        }
+    }
+
+    /**
+     * Resume os dias fechados e apaga os eventos brutos fora da retenção.
+     *
+     * @return vazio se já houver uma execução em andamento
+     */
+    public Optional<TelemetryRetentionResultDTO> run() {
+        if (!running.compareAndSet(false, true)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(runOnce(LocalDate.now(clock)));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @param from primeiro dia (UTC), inclusivo
+     * @param to   último dia (UTC), inclusivo
+     */
+    public List<DailyEngagementDTO> findDaily(Long studentId, String category, LocalDate from, LocalDate to) {
+        return rollupRepository.findDaily(studentId, category, from, to.plusDays(1));
+    }
+
+    private TelemetryRetentionResultDTO runOnce(LocalDate today) {
+        Optional<LocalDate> rolledUpUntil = rollupRepository.findRolledUpUntil();
+        Optional<LocalDate> oldestRawDay = rollupRepository.findOldestReceivedAt()
+                .map(receivedAt -> receivedAt.atZoneSameInstant(ZoneOffset.UTC).toLocalDate());
+        // Dias sem eventos no começo (ou desde a última execução) não precisam de linha de resumo
+        LocalDate day = oldestRawDay
+                .map(oldest -> rolledUpUntil.filter(until -> until.isAfter(oldest)).orElse(oldest))
+                .orElse(rolledUpUntil.orElse(today));
+
+        int days = 0;
+        long rows = 0;
+        for (; day.isBefore(today); day = day.plusDays(1)) {
+            rows += rollupRepository.rollUpDay(day);
+            days++;
+        }
+        LocalDate until = days > 0 ? day : rolledUpUntil.orElse(null);
+        rolledUpDays.increment(days);
+        int lateRows = until != null ? rollupRepository.rollUpLate(until) : 0;
+        if (lateRows > 0) {
+            log.info("Retenção de telemetria: eventos atrasados somados em {} linhas de resumo", lateRows);
+        }
+        rows += lateRows;
+
+        // Só apaga o que já foi resumido, mesmo se a retenção for menor que o atraso dos resumos
+        LocalDate retainedFrom = today.minusDays(rawDays);
+        if (until == null) {
+            retainedFrom = null;
+        } else if (until.isBefore(retainedFrom)) {
+            retainedFrom = until;
+        }
+        long deleted = 0;
+        if (retainedFrom != null) {
+            int batch;
+            do {
+                batch = rollupRepository.deleteRawBefore(retainedFrom.atStartOfDay().atOffset(ZoneOffset.UTC),
+                        deleteBatchSize);
+                deleted += batch;
+            } while (batch >= deleteBatchSize);
+        }
+        deletedEvents.increment(deleted);
+
+        if (days > 0 || deleted > 0) {
+            log.info("Retenção de telemetria: {} dias resumidos ({} linhas), {} eventos brutos apagados antes de {}",
+                    days, rows, deleted, retainedFrom);
+        }
+        return TelemetryRetentionResultDTO.builder()
+                .daysRolledUp(days)
+                .rollupRowsCreated(rows)
+                .rawEventsDeleted(deleted)
+                .rolledUpUntil(until)
+                .rawRetainedFrom(retainedFrom)
+                .build();
+    }
+}
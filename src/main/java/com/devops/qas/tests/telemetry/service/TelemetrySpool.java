@@ -0,0 +1,417 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Spool local (write-ahead) da ingestão: os eventos aceitos são gravados em
+ * segmentos de tamanho fixo mapeados em memória e só saem dali depois que o lote
+ * correspondente foi gravado no banco ({@link #commit}). O checkpoint de leitura
+ * fica num arquivo à parte; ao reiniciar, o que estiver depois dele é reenviado
+ * (a {@code dedup_key} torna o reenvio idempotente).
+ *
+ * <p>Registro: comprimento (int), CRC32 (int), instante do append (long) e o evento
+ * em JSON. O comprimento é escrito por último, então um registro incompleto após
+ * queda do processo é descartado na recuperação. As páginas sujas vão para o
+ * disco pelo kernel ou a cada {@link #force()}; uma queda de energia pode perder
+ * o último intervalo de flush.
+ *
+ * <p>Um único escritor por vez (append sob lock) e um único leitor, a thread de
+ * gravação do {@link TelemetryIngestionPipeline}.
+ */
+@Component
+@ConditionalOnProperty(name = "telemetry.spool.enabled", havingValue = "true")
+@Slf4j
+public class TelemetrySpool {
+
+    private static final int HEADER_BYTES = 16;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final long BYTES_PER_MB = 1024L * 1024L;
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final ObjectWriter eventWriter;
+    private final ObjectReader eventReader;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchReady = lock.newCondition();
+    private final AtomicLong pending = new AtomicLong();
+    private final FileChannel checkpointChannel;
+    private final FileLock directoryLock;
+
+    // Escrita, sob lock
+    private Segment writeSegment;
+    private int writeOffset;
+    private boolean dirty;
+    private int signalThreshold = 1;
+
+    // Leitura: posição do checkpoint, só a thread de gravação altera
+    private long readSegmentId;
+    private int readOffset;
+    private volatile long headAppendedAtMillis;
+
+    public TelemetrySpool(
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${telemetry.spool.dir:data/telemetry-spool}") String directory,
+            @Value("${telemetry.spool.segment-size-mb:16}") int segmentSizeMb,
+            @Value("${telemetry.spool.max-segments:64}") int maxSegments) throws IOException {
+        this.directory = Path.of(directory);
+        this.segmentBytes = Math.toIntExact(segmentSizeMb * BYTES_PER_MB);
+        this.maxSegments = maxSegments;
+        this.eventWriter = objectMapper.writerFor(StudySessionEvent.class);
+        this.eventReader = objectMapper.readerFor(StudySessionEvent.class);
+
+        Files.createDirectories(this.directory);
+        FileChannel lockChannel = FileChannel.open(this.directory.resolve("spool.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.directoryLock = lockChannel.tryLock();
+        if (directoryLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Spool de telemetria em uso por outro processo: " + directory);
+        }
+        this.checkpointChannel = FileChannel.open(this.directory.resolve("checkpoint"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        recover();
+
+        Gauge.builder("telemetry.spool.depth", pending, AtomicLong::get)
+                .register(meterRegistry);
+        Gauge.builder("telemetry.spool.lag.seconds", this, spool -> spool.lagMillis() / 1000.0)
+                .register(meterRegistry);
+        Gauge.builder("telemetry.spool.disk.bytes", segments, map -> (double) map.size() * segmentBytes)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return false se o evento não cabe num segmento, o limite de segmentos foi
+     *         atingido ou a escrita falhou
+     */
+    public boolean append(StudySessionEvent event) {
+        byte[] payload;
+        try {
+            payload = eventWriter.writeValueAsBytes(event);
+        } catch (IOException e) {
+            log.error("Falha ao serializar evento para o spool", e);
+            return false;
+        }
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes > segmentBytes) {
+            log.warn("Evento de {} bytes maior que o segmento do spool ({} bytes)", payload.length, segmentBytes);
+            return false;
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        lock.lock();
+        try {
+            if (writeOffset + recordBytes > segmentBytes) {
+                if (segments.size() >= maxSegments) {
+                    return false;
+                }
+                // force() só alcança o segmento atual: o anterior vai para o disco antes da troca.
+                // Sob o lock, mas acontece uma vez por segmento
+                if (dirty) {
+                    writeSegment.buffer.force();
+                    dirty = false;
+                }
+                writeSegment = openSegment(writeSegment.id + 1, true);
+                writeOffset = 0;
+            }
+            MappedByteBuffer buffer = writeSegment.buffer;
+            buffer.putInt(writeOffset + 4, (int) crc.getValue());
+            buffer.putLong(writeOffset + 8, System.currentTimeMillis());
+            buffer.put(writeOffset + HEADER_BYTES, payload);
+            buffer.putInt(writeOffset, payload.length);
+            writeOffset += recordBytes;
+            dirty = true;
+
+            if (pending.incrementAndGet() == 1) {
+                headAppendedAtMillis = System.currentTimeMillis();
+            }
+            if (pending.get() >= signalThreshold) {
+                batchReady.signal();
+            }
+            return true;
+        } catch (IOException e) {
+            log.error("Falha ao abrir novo segmento do spool em {}", directory, e);
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Espera até {@code maxEvents} eventos pendentes ou {@code timeoutMs} e devolve
+     * o que houver a partir do checkpoint, sem avançá-lo. Sem {@link #commit} o
+     * mesmo lote é devolvido de novo na próxima chamada.
+     */
+    public Batch poll(int maxEvents, long timeoutMs) throws InterruptedException {
+        lock.lock();
+        try {
+            signalThreshold = maxEvents;
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (pending.get() < maxEvents && remainingNanos > 0) {
+                remainingNanos = batchReady.awaitNanos(remainingNanos);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return read((int) Math.min(maxEvents, pending.get()));
+    }
+
+    /** Avança o checkpoint para depois do lote e apaga os segmentos já consumidos. */
+    public void commit(Batch batch) throws IOException {
+        if (batch.records == 0) {
+            return;
+        }
+        writeCheckpoint(batch.endSegmentId, batch.endOffset);
+        readSegmentId = batch.endSegmentId;
+        readOffset = batch.endOffset;
+        long remaining = pending.addAndGet(-batch.records);
+        if (remaining > 0) {
+            headAppendedAtMillis = peekAppendedAt();
+        }
+
+        Map<Long, Segment> consumed = segments.headMap(readSegmentId);
+        for (Segment segment : consumed.values()) {
+            segment.close();
+            Files.deleteIfExists(segment.path);
+        }
+        consumed.clear();
+    }
+
+    /** Força as páginas escritas desde a última chamada para o disco. */
+    public void force() {
+        Segment segment;
+        lock.lock();
+        try {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            segment = writeSegment;
+        } finally {
+            lock.unlock();
+        }
+        segment.buffer.force();
+    }
+
+    public long depth() {
+        return pending.get();
+    }
+
+    public long lagMillis() {
+        return pending.get() == 0 ? 0 : Math.max(0, System.currentTimeMillis() - headAppendedAtMillis);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        force();
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+        checkpointChannel.close();
+        directoryLock.release();
+        directoryLock.channel().close();
+    }
+
+    private Batch read(int maxRecords) {
+        List<StudySessionEvent> events = new ArrayList<>(maxRecords);
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        int records = 0;
+        while (records < maxRecords && segments.containsKey(segmentId)) {
+            Segment segment = segments.get(segmentId);
+            int length = recordLength(segment, offset);
+            if (length < 0) {
+                segmentId++;
+                offset = 0;
+                continue;
+            }
+            records++;
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            try {
+                events.add(eventReader.readValue(payload));
+            } catch (IOException e) {
+                // CRC válido mas JSON ilegível (ex.: versão anterior da entidade): não trava o spool
+                log.error("Registro ilegível no spool (segmento {}, posição {}) descartado", segmentId, offset, e);
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return new Batch(events, records, segmentId, offset);
+    }
+
+    /** Comprimento do registro válido em {@code offset}, ou -1 se o segmento acabou ali. */
+    private int recordLength(Segment segment, int offset) {
+        if (segment == null || offset + HEADER_BYTES > segmentBytes) {
+            return -1;
+        }
+        int length = segment.buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_BYTES + length > segmentBytes) {
+            return -1;
+        }
+        byte[] payload = new byte[length];
+        segment.buffer.get(offset + HEADER_BYTES, payload);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        return (int) crc.getValue() == segment.buffer.getInt(offset + 4) ? length : -1;
+    }
+
+    private long peekAppendedAt() {
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        while (segments.containsKey(segmentId)) {
+            Segment segment = segments.get(segmentId);
+            if (recordLength(segment, offset) >= 0) {
+                return segment.buffer.getLong(offset + 8);
+            }
+            segmentId++;
+            offset = 0;
+        }
+        return System.currentTimeMillis();
+    }
+
+    private void recover() throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(16);
+        if (checkpointChannel.read(checkpoint, 0) == 16) {
+            readSegmentId = checkpoint.getLong(0);
+            readOffset = checkpoint.getInt(8);
+        }
+
+        List<Long> ids;
+        try (Stream<Path> files = Files.list(directory)) {
+            ids = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (Long id : ids) {
+            if (id < readSegmentId) {
+                Files.deleteIfExists(segmentPath(id));
+            } else {
+                openSegment(id, false);
+            }
+        }
+        if (segments.isEmpty()) {
+            readSegmentId = Math.max(readSegmentId, 0);
+            readOffset = 0;
+            writeSegment = openSegment(readSegmentId, true);
+            writeOffset = 0;
+            writeCheckpoint(readSegmentId, readOffset);
+            return;
+        }
+        if (!segments.containsKey(readSegmentId)) {
+            readSegmentId = segments.firstKey();
+            readOffset = 0;
+        }
+
+        // Conta os registros válidos a partir do checkpoint; a escrita continua após o último
+        long recovered = 0;
+        writeSegment = segments.lastEntry().getValue();
+        for (Segment segment : segments.tailMap(readSegmentId).values()) {
+            int offset = segment.id == readSegmentId ? readOffset : 0;
+            int length;
+            while ((length = recordLength(segment, offset)) >= 0) {
+                offset += HEADER_BYTES + length;
+                recovered++;
+            }
+            if (segment == writeSegment) {
+                writeOffset = offset;
+            }
+        }
+        pending.set(recovered);
+        if (recovered > 0) {
+            headAppendedAtMillis = peekAppendedAt();
+            log.info("Spool de telemetria recuperado: {} eventos pendentes em {} segmento(s)", recovered, segments.size());
+        }
+    }
+
+    private Segment openSegment(long id, boolean create) throws IOException {
+        Path path = segmentPath(id);
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw")) {
+            if (create || file.length() < segmentBytes) {
+                file.setLength(segmentBytes);
+            }
+            MappedByteBuffer buffer = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            Segment segment = new Segment(id, path, buffer);
+            segments.put(id, segment);
+            return segment;
+        }
+    }
+
+    private void writeCheckpoint(long segmentId, int offset) throws IOException {
+        ByteBuffer checkpoint = ByteBuffer.allocate(16);
+        checkpoint.putLong(0, segmentId).putInt(8, offset);
+        checkpointChannel.write(checkpoint, 0);
+        checkpointChannel.force(false);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    /** Eventos lidos do spool e a posição logo após o último registro consumido. */
+    public static final class Batch {
+        private final List<StudySessionEvent> events;
+        private final int records;
+        private final long endSegmentId;
+        private final int endOffset;
+
+        private Batch(List<StudySessionEvent> events, int records, long endSegmentId, int endOffset) {
+            this.events = events;
+            this.records = records;
+            this.endSegmentId = endSegmentId;
+            this.endOffset = endOffset;
+        }
+
+        public List<StudySessionEvent> getEvents() {
+            return events;
+        }
+
+        /** Registros consumidos, incluindo os ilegíveis descartados. */
+        public boolean isEmpty() {
+            return records == 0;
+        }
+    }
+
+    private record Segment(long id, Path path, MappedByteBuffer buffer) {
+        void close() {
+            // O mapeamento é liberado pelo GC; basta garantir que o conteúdo foi para o disco
+            buffer.force();
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.EngagementWindowDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Engajamento por categoria, curso e aluno agregado em memória conforme os eventos
+ * são gravados, para que os painéis não precisem listar eventos e calcular médias.
+ *
+ * <p>Os eventos caem em baldes de um minuto (pelo {@code receivedAt}) guardados num
+ * anel de duas horas; as janelas de 1m/15m/1h são montadas somando os baldes na
+ * consulta. A janela deslizante inclui o minuto corrente; a fixa ({@code tumbling})
+ * é a última janela alinhada já fechada. O estado não sobrevive a um restart.
+ */
+@Component
+public class TelemetryWindowAggregator {
+
+    private static final long MINUTE_MILLIS = 60_000;
+    // Cobre a janela deslizante de 1h e a última hora fechada
+    private static final int RETAINED_MINUTES = 120;
+    private static final int HISTOGRAM_BINS = 20;
+    private static final int MAX_LIMIT = 1000;
+
+    public enum GroupBy {
+        CATEGORY(StudySessionEvent::getCategory),
+        COURSE(StudySessionEvent::getCourseName),
+        STUDENT(event -> event.getStudentId() == null ? null : event.getStudentId().toString());
+
+        private final Function<StudySessionEvent, String> key;
+
+        GroupBy(Function<StudySessionEvent, String> key) {
+            this.key = key;
+        }
+
+        public static GroupBy parse(String value) {
+            for (GroupBy groupBy : values()) {
+                if (groupBy.name().equalsIgnoreCase(value)) {
+                    return groupBy;
+                }
+            }
+            throw new IllegalArgumentException("groupBy deve ser category, course ou student: " + value);
+        }
+    }
+
+    public enum Window {
+        ONE_MINUTE("1m", 1), FIFTEEN_MINUTES("15m", 15), ONE_HOUR("1h", 60);
+
+        private final String label;
+        private final int minutes;
+
+        Window(String label, int minutes) {
+            this.label = label;
+            this.minutes = minutes;
+        }
+
+        public static Window parse(String value) {
+            for (Window window : values()) {
+                if (window.label.equalsIgnoreCase(value)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("window deve ser 1m, 15m ou 1h: " + value);
+        }
+    }
+
+    public enum Mode {
+        SLIDING, TUMBLING;
+
+        public static Mode parse(String value) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(value)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("mode deve ser sliding ou tumbling: " + value);
+        }
+    }
+
+    private final AtomicReferenceArray<MinuteBucket> buckets = new AtomicReferenceArray<>(RETAINED_MINUTES);
+    private final int maxKeysPerMinute;
+    private final LongSupplier clock;
+    private final Counter late;
+    private final Counter overflowed;
+
+    @Autowired
+    public TelemetryWindowAggregator(
+            MeterRegistry meterRegistry,
+            @Value("${telemetry.windows.max-keys-per-minute:5000}") int maxKeysPerMinute) {
+        this(meterRegistry, maxKeysPerMinute, System::currentTimeMillis);
+    }
+
+    TelemetryWindowAggregator(MeterRegistry meterRegistry, int maxKeysPerMinute, LongSupplier clock) {
+        this.maxKeysPerMinute = maxKeysPerMinute;
+        this.clock = clock;
+        this.late = meterRegistry.counter("telemetry.windows.dropped", "reason", "late");
+        this.overflowed = meterRegistry.counter("telemetry.windows.dropped", "reason", "keys");
+    }
+
+    @EventListener
+    public void onBatchPersisted(TelemetryBatchPersistedEvent event) {
+        event.getEvents().forEach(this::record);
+    }
+
+    /** Eventos sem {@code id} não foram inseridos (duplicatas) e são ignorados. */
+    public void record(StudySessionEvent event) {
+        if (event.getId() == null) {
+            return;
+        }
+        long nowMinute = Math.floorDiv(clock.getAsLong(), MINUTE_MILLIS);
+        long minute = event.getReceivedAt() == null ? nowMinute
+                : Math.min(nowMinute, Math.floorDiv(event.getReceivedAt().toInstant().toEpochMilli(), MINUTE_MILLIS));
+        MinuteBucket bucket = minute > nowMinute - RETAINED_MINUTES ? bucketFor(minute) : null;
+        if (bucket == null) {
+            late.increment();
+            return;
+        }
+        for (GroupBy groupBy : GroupBy.values()) {
+            String key = groupBy.key.apply(event);
+            if (key == null) {
+                continue;
+            }
+            Map<String, WindowStats> stats = bucket.groups.get(groupBy);
+            WindowStats keyStats = stats.get(key);
+            if (keyStats == null) {
+                // Limite aproximado sob concorrência; serve só para conter a memória
+                if (stats.size() >= maxKeysPerMinute) {
+                    overflowed.increment();
+                    continue;
+                }
+                keyStats = stats.computeIfAbsent(key, k -> new WindowStats());
+            }
+            keyStats.add(event.getDurationMinutes(), event.getEngagementScore());
+        }
+    }
+
+    /**
+     * @param key    restringe a uma categoria, curso ou aluno; null traz todos
+     * @param limit  máximo de chaves, as com mais sessões primeiro
+     */
+    public List<EngagementWindowDTO> snapshot(GroupBy groupBy, Window window, Mode mode, String key, int limit) {
+        long now = clock.getAsLong();
+        long nowMinute = Math.floorDiv(now, MINUTE_MILLIS);
+        long endMinute = mode == Mode.SLIDING
+                ? nowMinute + 1
+                : Math.floorDiv(nowMinute, window.minutes) * window.minutes;
+        long startMinute = endMinute - window.minutes;
+
+        Map<String, WindowStats> merged = new HashMap<>();
+        for (long minute = startMinute; minute < endMinute; minute++) {
+            MinuteBucket bucket = buckets.get(slot(minute));
+            if (bucket == null || bucket.minute != minute) {
+                continue;
+            }
+            Map<String, WindowStats> stats = bucket.groups.get(groupBy);
+            if (key != null) {
+                WindowStats keyStats = stats.get(key);
+                if (keyStats != null) {
+                    keyStats.mergeInto(merged.computeIfAbsent(key, k -> new WindowStats()));
+                }
+            } else {
+                stats.forEach((statsKey, keyStats) ->
+                        keyStats.mergeInto(merged.computeIfAbsent(statsKey, k -> new WindowStats())));
+            }
+        }
+
+        Instant windowStart = Instant.ofEpochMilli(startMinute * MINUTE_MILLIS);
+        Instant windowEnd = mode == Mode.SLIDING ? Instant.ofEpochMilli(now) : Instant.ofEpochMilli(endMinute * MINUTE_MILLIS);
+        String groupByLabel = groupBy.name().toLowerCase(Locale.ROOT);
+        List<EngagementWindowDTO> result = new ArrayList<>(merged.size());
+        merged.forEach((statsKey, stats) -> result.add(stats.toDTO(groupByLabel, statsKey, windowStart, windowEnd)));
+        result.sort(Comparator.comparingLong(EngagementWindowDTO::getSessions).reversed()
+                .thenComparing(EngagementWindowDTO::getKey));
+        int maxKeys = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return result.size() > maxKeys ? new ArrayList<>(result.subList(0, maxKeys)) : result;
+    }
+
+    /**
+     * Balde do minuto, reciclando o slot do anel se ele guarda um minuto antigo.
+     * Null se o slot já foi tomado por um minuto mais novo (relógio voltou).
+     */
+    private MinuteBucket bucketFor(long minute) {
+        int slot = slot(minute);
+        while (true) {
+            MinuteBucket current = buckets.get(slot);
+            if (current != null && current.minute == minute) {
+                return current;
+            }
+            if (current != null && current.minute > minute) {
+                return null;
+            }
+            MinuteBucket fresh = new MinuteBucket(minute);
+            if (buckets.compareAndSet(slot, current, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private static int slot(long minute) {
+        return (int) Math.floorMod(minute, (long) RETAINED_MINUTES);
+    }
+
+    private static final class MinuteBucket {
+        private final long minute;
+        private final Map<GroupBy, Map<String, WindowStats>> groups = new EnumMap<>(GroupBy.class);
+
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+            for (GroupBy groupBy : GroupBy.values()) {
+                groups.put(groupBy, new ConcurrentHashMap<>());
+            }
+        }
+    }
+
+    private static final class WindowStats {
+        private long sessions;
+        private long totalDurationMinutes;
+        private long engagementCount;
+        private double engagementSum;
+        private final long[] histogram = new long[HISTOGRAM_BINS];
+
+        synchronized void add(Integer durationMinutes, Double engagementScore) {
+            sessions++;
+            if (durationMinutes != null) {
+                totalDurationMinutes += durationMinutes;
+            }
+            if (engagementScore != null) {
+                double score = Math.max(0.0, Math.min(1.0, engagementScore));
+                engagementCount++;
+                engagementSum += score;
+                histogram[Math.min(HISTOGRAM_BINS - 1, (int) (score * HISTOGRAM_BINS))]++;
+            }
+        }
+
+        // Só o destino é local à consulta; a origem pode estar recebendo eventos
+        synchronized void mergeInto(WindowStats target) {
+            target.sessions += sessions;
+            target.totalDurationMinutes += totalDurationMinutes;
+            target.engagementCount += engagementCount;
+            target.engagementSum += engagementSum;
+            for (int i = 0; i < HISTOGRAM_BINS; i++) {
+                target.histogram[i] += histogram[i];
+            }
+        }
+
+        EngagementWindowDTO toDTO(String groupBy, String key, Instant windowStart, Instant windowEnd) {
+            boolean hasEngagement = engagementCount > 0;
+            return EngagementWindowDTO.builder()
+                    .groupBy(groupBy)
+                    .key(key)
+                    .windowStart(windowStart)
+                    .windowEnd(windowEnd)
+                    .sessions(sessions)
+                    .totalDurationMinutes(totalDurationMinutes)
+                    .averageEngagement(hasEngagement ? engagementSum / engagementCount : null)
+                    .p50Engagement(hasEngagement ? percentile(0.50) : null)
+                    .p90Engagement(hasEngagement ? percentile(0.90) : null)
+                    .p99Engagement(hasEngagement ? percentile(0.99) : null)
+                    .build();
+        }
+
+        // Interpolação linear dentro da faixa do histograma
+        private double percentile(double quantile) {
+            double rank = quantile * engagementCount;
+            long seen = 0;
+            for (int i = 0; i < HISTOGRAM_BINS; i++) {
+                if (histogram[i] > 0 && seen + histogram[i] >= rank) {
+                    double fraction = (rank - seen) / histogram[i];
+                    return (i + fraction) / HISTOGRAM_BINS;
+                }
+                seen += histogram[i];
+            }
+            return 1.0;
+        }
+    }
+}
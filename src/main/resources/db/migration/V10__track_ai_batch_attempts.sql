@@ -0,0 +1,7 @@
+-- failed_attempts: execuções seguidas em que o prompt do primeiro aluno após o
+-- checkpoint falhou; ao chegar em ai.batch.max-attempts esses alunos são pulados
+-- (students_skipped). processing_millis: tempo gasto nas rodadas, sem as pausas
+-- entre uma execução interrompida e sua retomada.
+ALTER TABLE ai_batch_runs ADD COLUMN failed_attempts INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE ai_batch_runs ADD COLUMN students_skipped BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE ai_batch_runs ADD COLUMN processing_millis BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,31 @@
+CREATE TABLE recommendations (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id  BIGINT       NOT NULL,
+    course_name VARCHAR(255) NOT NULL,
+    category    VARCHAR(255),
+    is_saved    BOOLEAN      NOT NULL DEFAULT FALSE,
+    is_useful   BOOLEAN      NOT NULL DEFAULT FALSE
+);
+
+CREATE TABLE student_activities (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id BIGINT       NOT NULL,
+    location   VARCHAR(255) NOT NULL,
+    action     VARCHAR(255) NOT NULL,
+    timestamp  TIMESTAMP(6) NOT NULL,
+    device_id  VARCHAR(255)
+);
+
+CREATE TABLE study_session_events (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    student_id       BIGINT,
+    device_id        VARCHAR(255),
+    category         VARCHAR(255),
+    course_name      VARCHAR(255),
+    duration_minutes INTEGER,
+    engagement_score DOUBLE PRECISION,
+    start_time       TIMESTAMP(6) WITH TIME ZONE,
+    end_time         TIMESTAMP(6) WITH TIME ZONE,
+    metadata_json    TEXT,
+    received_at      TIMESTAMP(6) WITH TIME ZONE
+);
@@ -0,0 +1,12 @@
+-- Telemetria: filtros por aluno / categoria (case-insensitive) / período,
+-- sempre ordenados por (received_at DESC, id DESC) para a paginação por keyset.
+ALTER TABLE study_session_events
+    ADD COLUMN category_lower VARCHAR(255) GENERATED ALWAYS AS (LOWER(category));
+
+CREATE INDEX idx_sse_received_at ON study_session_events (received_at DESC, id DESC);
+CREATE INDEX idx_sse_student_received_at ON study_session_events (student_id, received_at DESC, id DESC);
+CREATE INDEX idx_sse_category_received_at ON study_session_events (category_lower, received_at DESC, id DESC);
+
+-- Recomendações: busca por aluno (+ curso) e relatórios por categoria.
+CREATE INDEX idx_recommendations_student_course ON recommendations (student_id, course_name);
+CREATE INDEX idx_recommendations_category ON recommendations (category);
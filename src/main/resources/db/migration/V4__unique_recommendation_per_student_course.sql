@@ -0,0 +1,18 @@
+-- Consolida duplicatas (aluno, curso) na linha mais antiga, preservando as flags
+-- e a categoria, antes de criar a chave única usada pelos upserts.
+UPDATE recommendations r
+SET is_saved  = (SELECT MAX(CASE WHEN d.is_saved THEN 1 ELSE 0 END) = 1 FROM recommendations d
+                 WHERE d.student_id = r.student_id AND d.course_name = r.course_name),
+    is_useful = (SELECT MAX(CASE WHEN d.is_useful THEN 1 ELSE 0 END) = 1 FROM recommendations d
+                 WHERE d.student_id = r.student_id AND d.course_name = r.course_name),
+    category  = COALESCE(r.category, (SELECT MAX(d.category) FROM recommendations d
+                 WHERE d.student_id = r.student_id AND d.course_name = r.course_name))
+WHERE r.id IN (SELECT MIN(id) FROM recommendations GROUP BY student_id, course_name HAVING COUNT(*) > 1);
+
+DELETE FROM recommendations
+WHERE id NOT IN (SELECT MIN(id) FROM recommendations GROUP BY student_id, course_name);
+
+DROP INDEX idx_recommendations_student_course;
+
+ALTER TABLE recommendations
+    ADD CONSTRAINT uk_recommendations_student_course UNIQUE (student_id, course_name);
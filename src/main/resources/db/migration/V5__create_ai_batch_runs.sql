@@ -0,0 +1,16 @@
+-- Execuções do job de recomendações em lote por IA. last_student_id é o
+-- checkpoint: alunos com id até ele já foram processados nesta execução.
+CREATE TABLE ai_batch_runs (
+    id                      BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    status                  VARCHAR(20)                 NOT NULL,
+    started_at              TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    updated_at              TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    finished_at             TIMESTAMP(6) WITH TIME ZONE,
+    last_student_id         BIGINT                      NOT NULL DEFAULT 0,
+    students_processed      BIGINT                      NOT NULL DEFAULT 0,
+    recommendations_created BIGINT                      NOT NULL DEFAULT 0,
+    prompts_sent            BIGINT                      NOT NULL DEFAULT 0,
+    prompts_failed          BIGINT                      NOT NULL DEFAULT 0,
+    prompt_tokens           BIGINT                      NOT NULL DEFAULT 0,
+    completion_tokens       BIGINT                      NOT NULL DEFAULT 0
+);
@@ -0,0 +1,6 @@
+-- Deduplicação da telemetria (QoS 1 reentrega mensagens): SHA-256 de (deviceId, eventId)
+-- quando o dispositivo envia um id, senão de (deviceId, studentId, startTime).
+-- Eventos sem chave ficam com NULL e não são deduplicados.
+ALTER TABLE study_session_events ADD COLUMN dedup_key VARCHAR(64);
+
+CREATE UNIQUE INDEX uk_sse_dedup_key ON study_session_events (dedup_key);
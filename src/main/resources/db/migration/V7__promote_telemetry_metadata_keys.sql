@@ -0,0 +1,5 @@
+-- Chaves de metadata enviadas por todo dispositivo viram colunas tipadas, lidas sem
+-- desserializar o JSON. Eventos novos deixam de repeti-las em metadata_json; as
+-- linhas antigas continuam só com o JSON.
+ALTER TABLE study_session_events ADD COLUMN focus_level DOUBLE PRECISION;
+ALTER TABLE study_session_events ADD COLUMN interruptions INTEGER;
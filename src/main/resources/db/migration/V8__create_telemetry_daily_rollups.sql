@@ -0,0 +1,28 @@
+-- Resumo diário (dia UTC de received_at) por aluno e categoria. Os eventos brutos de
+-- dias mais antigos que a retenção são somados aqui e apagados de study_session_events.
+-- Médias saem de soma / contagem, para somar dias e categorias na consulta.
+CREATE TABLE study_session_daily_rollups (
+    id                     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    rollup_day             DATE             NOT NULL,
+    student_id             BIGINT,
+    category               VARCHAR(255),
+    category_lower         VARCHAR(255) GENERATED ALWAYS AS (LOWER(category)),
+    sessions               BIGINT           NOT NULL,
+    total_duration_minutes BIGINT           NOT NULL,
+    engagement_sum         DOUBLE PRECISION NOT NULL,
+    engagement_count       BIGINT           NOT NULL,
+    focus_level_sum        DOUBLE PRECISION NOT NULL,
+    focus_level_count      BIGINT           NOT NULL,
+    interruptions          BIGINT           NOT NULL
+);
+
+CREATE INDEX idx_ssdr_day ON study_session_daily_rollups (rollup_day);
+CREATE INDEX idx_ssdr_student_day ON study_session_daily_rollups (student_id, rollup_day);
+CREATE INDEX idx_ssdr_category_day ON study_session_daily_rollups (category_lower, rollup_day);
+
+-- Dias anteriores a rolled_up_until já estão nos resumos; consultas leem esses dias
+-- só de study_session_daily_rollups e os demais de study_session_events.
+CREATE TABLE telemetry_rollup_state (
+    id              INTEGER PRIMARY KEY,
+    rolled_up_until DATE NOT NULL
+);
@@ -0,0 +1,9 @@
+-- Marca os eventos brutos já somados em study_session_daily_rollups. Um evento gravado
+-- depois com received_at num dia já resumido fica com FALSE e é somado pela próxima
+-- retenção, antes de os eventos brutos do dia serem apagados.
+ALTER TABLE study_session_events ADD COLUMN rolled_up BOOLEAN DEFAULT FALSE NOT NULL;
+
+UPDATE study_session_events SET rolled_up = TRUE
+WHERE CAST(received_at AT TIME ZONE 'UTC' AS DATE) < (SELECT rolled_up_until FROM telemetry_rollup_state WHERE id = 1);
+
+CREATE INDEX idx_sse_rolled_up_received_at ON study_session_events (rolled_up, received_at);
@@ -0,0 +1,83 @@
+package com.devops.qas.tests.ai.service;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.StreamingChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AIAsyncServiceTest {
+
+    @Mock
+    private AIService aiService;
+
+    private AIAsyncService asyncService;
+
+    private AIAsyncService service(StreamingChatLanguageModel streamingModel) {
+        asyncService = new AIAsyncService(aiService, streamingModel, 1, 1000);
+        asyncService.start();
+        return asyncService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        asyncService.stop();
+    }
+
+    @Test
+    void chat_ShouldRejectImmediatelyWhenAllPermitsAreBusy() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(aiService.chat("lenta")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "ok";
+        });
+        AIAsyncService service = service((messages, handler) -> { });
+
+        CompletableFuture<String> first = service.chat("lenta");
+
+        assertThrows(AIOverloadedException.class, () -> service.chat("outra"));
+        verify(aiService, never()).chat("outra");
+
+        release.countDown();
+        assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.availablePermits());
+    }
+
+    @Test
+    void chat_ShouldReleasePermitWhenModelFails() {
+        when(aiService.chat("erro")).thenThrow(new IllegalStateException("falhou"));
+        AIAsyncService service = service((messages, handler) -> { });
+
+        CompletableFuture<String> result = service.chat("erro");
+
+        assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, service.availablePermits());
+    }
+
+    @Test
+    void streamChat_ShouldHoldPermitUntilStreamCompletes() {
+        CompletableFuture<Runnable> finish = new CompletableFuture<>();
+        AIAsyncService service = service((messages, handler) -> {
+            handler.onNext("olá");
+            finish.complete(() -> handler.onComplete(Response.from(AiMessage.from("olá"))));
+        });
+
+        assertNotNull(service.streamChat("oi"));
+        assertEquals(0, service.availablePermits());
+        assertThrows(AIOverloadedException.class, () -> service.streamChat("de novo"));
+
+        finish.join().run();
+        assertEquals(1, service.availablePermits());
+    }
+}
@@ -0,0 +1,231 @@
+package com.devops.qas.tests.ai.service;
+
+import com.devops.qas.tests.ai.domain.entity.AIBatchRun;
+import com.devops.qas.tests.ai.dto.StudentProfile;
+import com.devops.qas.tests.ai.repository.AIBatchRunRepository;
+import com.devops.qas.tests.ai.repository.StudentProfileRepository;
+import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
+import com.devops.qas.tests.recommendation.service.RecommendationService;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AIRecommendationBatchServiceTest {
+
+    @Mock
+    private ChatLanguageModel chatLanguageModel;
+
+    @Mock
+    private StudentProfileRepository profileRepository;
+
+    @Mock
+    private AIBatchRunRepository runRepository;
+
+    @Mock
+    private RecommendationService recommendationService;
+
+    private AIRecommendationBatchService batchService;
+
+    private AIRecommendationBatchService service(int studentsPerPrompt, int parallelism) {
+        batchService = new AIRecommendationBatchService(chatLanguageModel, profileRepository, runRepository,
+                recommendationService, true, studentsPerPrompt, 2, parallelism, 0, 90, 3);
+        batchService.start();
+        return batchService;
+    }
+
+    @AfterEach
+    void tearDown() {
+        batchService.stop();
+    }
+
+    private static StudentProfile profile(long studentId, String... courses) {
+        StudentProfile profile = StudentProfile.builder().studentId(studentId).build();
+        for (String course : courses) {
+            profile.getCourses().add(StudentProfile.Course.builder().courseName(course).category("DevOps").build());
+        }
+        return profile;
+    }
+
+    @Test
+    void parseRecommendations_ShouldKeepOnlyValidNewCoursesWithinLimit() {
+        AIRecommendationBatchService service = service(20, 1);
+        String answer = """
+                1|Kubernetes|DevOps
+                - 1 | docker | DevOps
+                1|Terraform|Cloud
+                1|Ansible|DevOps
+                2|AWS Básico|
+                99|Curso Estranho|Outros
+                texto livre sem formato
+                """;
+
+        List<Recommendation> result = service.parseRecommendations(answer, List.of(profile(1, "Docker"), profile(2)));
+
+        assertEquals(3, result.size());
+        assertEquals("Kubernetes", result.get(0).getCourseName());
+        assertEquals("Terraform", result.get(1).getCourseName());
+        assertEquals(2L, result.get(2).getStudentId());
+        assertNull(result.get(2).getCategory());
+    }
+
+    @Test
+    void run_ShouldPackStudentsPerPromptAndCheckpointAfterEachWave() {
+        AIRecommendationBatchService service = service(2, 1);
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(runRepository.save(any(AIBatchRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(profileRepository.findStudentIdsAfter(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(profileRepository.findStudentIdsAfter(2L, 2)).thenReturn(List.of(3L));
+        when(profileRepository.findStudentIdsAfter(3L, 2)).thenReturn(List.of());
+        when(profileRepository.loadProfiles(eq(List.of(1L, 2L)), any())).thenReturn(List.of(profile(1), profile(2)));
+        when(profileRepository.loadProfiles(eq(List.of(3L)), any())).thenReturn(List.of(profile(3)));
+        when(chatLanguageModel.generate(anyList())).thenReturn(
+                Response.from(AiMessage.from("1|Docker|DevOps\n2|Linux|SO"), new TokenUsage(100, 20)),
+                Response.from(AiMessage.from("3|Git|DevOps"), new TokenUsage(50, 10)));
+        when(recommendationService.addGeneratedRecommendations(anyList())).thenReturn(2, 1);
+
+        service.run();
+
+        verify(chatLanguageModel, times(2)).generate(anyList());
+        ArgumentCaptor<AIBatchRun> saved = ArgumentCaptor.forClass(AIBatchRun.class);
+        verify(runRepository, atLeastOnce()).save(saved.capture());
+        AIBatchRun run = saved.getValue();
+        assertEquals(AIBatchRun.Status.COMPLETED, run.getStatus());
+        assertEquals(3L, run.getLastStudentId());
+        assertEquals(3L, run.getStudentsProcessed());
+        assertEquals(3L, run.getRecommendationsCreated());
+        assertEquals(150L, run.getPromptTokens());
+        assertEquals(30L, run.getCompletionTokens());
+    }
+
+    @Test
+    void run_ShouldResumeInterruptedRunFromCheckpoint() {
+        AIRecommendationBatchService service = service(2, 1);
+        AIBatchRun interrupted = AIBatchRun.builder()
+                .id(7L)
+                .status(AIBatchRun.Status.INTERRUPTED)
+                .startedAt(OffsetDateTime.now().minusHours(1))
+                .updatedAt(OffsetDateTime.now().minusMinutes(30))
+                .lastStudentId(40L)
+                .studentsProcessed(40L)
+                .build();
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(interrupted));
+        when(runRepository.save(any(AIBatchRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(profileRepository.findStudentIdsAfter(40L, 2)).thenReturn(List.of());
+
+        service.run();
+
+        verify(profileRepository, never()).findStudentIdsAfter(eq(0L), anyInt());
+        verifyNoInteractions(chatLanguageModel);
+        assertEquals(AIBatchRun.Status.COMPLETED, interrupted.getStatus());
+        assertEquals(40L, interrupted.getStudentsProcessed());
+    }
+
+    @Test
+    void run_ShouldNotCheckpointStudentsWhosePromptFailed() {
+        AIRecommendationBatchService service = service(1, 2);
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(runRepository.save(any(AIBatchRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(profileRepository.findStudentIdsAfter(0L, 2)).thenReturn(List.of(1L, 2L));
+        when(profileRepository.loadProfiles(eq(List.of(1L, 2L)), any())).thenReturn(List.of(profile(1), profile(2)));
+        when(chatLanguageModel.generate(anyList())).thenAnswer(invocation -> {
+            List<ChatMessage> messages = invocation.getArgument(0);
+            if (((UserMessage) messages.get(0)).singleText().contains("Aluno 2")) {
+                throw new IllegalStateException("modelo indisponível");
+            }
+            return Response.from(AiMessage.from("1|Docker|DevOps"), new TokenUsage(100, 20));
+        });
+        when(recommendationService.addGeneratedRecommendations(anyList())).thenReturn(1);
+
+        service.run();
+
+        ArgumentCaptor<AIBatchRun> saved = ArgumentCaptor.forClass(AIBatchRun.class);
+        verify(runRepository, atLeastOnce()).save(saved.capture());
+        AIBatchRun run = saved.getValue();
+        assertEquals(AIBatchRun.Status.FAILED, run.getStatus());
+        assertEquals(1L, run.getLastStudentId());
+        assertEquals(1L, run.getStudentsProcessed());
+        assertEquals(1L, run.getPromptsFailed());
+        assertEquals(1, run.getFailedAttempts());
+        assertNull(run.getFinishedAt());
+        verify(profileRepository, times(1)).findStudentIdsAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void run_ShouldSkipStudentsWhosePromptKeepsFailing() {
+        AIRecommendationBatchService service = service(1, 1);
+        AIBatchRun failedRun = AIBatchRun.builder()
+                .id(7L)
+                .status(AIBatchRun.Status.FAILED)
+                .startedAt(OffsetDateTime.now().minusDays(2))
+                .updatedAt(OffsetDateTime.now().minusDays(1))
+                .lastStudentId(1L)
+                .studentsProcessed(1L)
+                .failedAttempts(2)
+                .build();
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(failedRun));
+        when(runRepository.save(any(AIBatchRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(profileRepository.findStudentIdsAfter(1L, 1)).thenReturn(List.of(2L));
+        when(profileRepository.findStudentIdsAfter(2L, 1)).thenReturn(List.of());
+        when(profileRepository.loadProfiles(eq(List.of(2L)), any())).thenReturn(List.of(profile(2)));
+        when(chatLanguageModel.generate(anyList())).thenThrow(new IllegalStateException("resposta inválida"));
+
+        service.run();
+
+        // Terceira tentativa seguida no aluno 2: ele é pulado e o job termina
+        assertEquals(AIBatchRun.Status.COMPLETED, failedRun.getStatus());
+        assertEquals(2L, failedRun.getLastStudentId());
+        assertEquals(1L, failedRun.getStudentsProcessed());
+        assertEquals(1L, failedRun.getStudentsSkipped());
+        assertEquals(0, failedRun.getFailedAttempts());
+        verifyNoInteractions(recommendationService);
+    }
+
+    @Test
+    void getLatestRun_ShouldMeasureThroughputOverProcessingTime() {
+        AIRecommendationBatchService service = service(2, 1);
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.of(AIBatchRun.builder()
+                .id(7L)
+                .status(AIBatchRun.Status.COMPLETED)
+                .startedAt(OffsetDateTime.now().minusDays(1))
+                .updatedAt(OffsetDateTime.now())
+                .finishedAt(OffsetDateTime.now())
+                .studentsProcessed(30L)
+                .processingMillis(60_000L)
+                .build()));
+
+        // Retomada no dia seguinte: a pausa entre as execuções não entra na vazão
+        assertEquals(30.0, service.getLatestRun().orElseThrow().getStudentsPerMinute(), 0.001);
+    }
+
+    @Test
+    void run_ShouldMarkRunInterruptedWhenStorageFails() {
+        AIRecommendationBatchService service = service(2, 1);
+        when(runRepository.findFirstByOrderByIdDesc()).thenReturn(Optional.empty());
+        when(runRepository.save(any(AIBatchRun.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(profileRepository.findStudentIdsAfter(0L, 2)).thenThrow(new IllegalStateException("banco indisponível"));
+
+        service.run();
+
+        ArgumentCaptor<AIBatchRun> saved = ArgumentCaptor.forClass(AIBatchRun.class);
+        verify(runRepository, times(2)).save(saved.capture());
+        assertEquals(AIBatchRun.Status.INTERRUPTED, saved.getValue().getStatus());
+    }
+}
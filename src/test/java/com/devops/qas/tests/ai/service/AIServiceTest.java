@@ -0,0 +1,118 @@
+package com.devops.qas.tests.ai.service;
+
+import com.devops.qas.tests.ai.dto.AICacheStatsDTO;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.model.chat.ChatLanguageModel;
+import dev.langchain4j.model.output.Response;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AIServiceTest {
+
+    /** Modelo falso: conta as chamadas e pode segurar a resposta até ser liberado. */
+    private static class StubChatModel implements ChatLanguageModel {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch release;
+        private volatile boolean fail;
+
+        StubChatModel(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public Response<AiMessage> generate(List<ChatMessage> messages) {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (fail) {
+                throw new IllegalStateException("modelo indisponível");
+            }
+            return Response.from(AiMessage.from("resposta " + calls.get()));
+        }
+    }
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AIService service(StubChatModel model) {
+        return new AIService(model, new AIResponseCache("gpt-test", 0.7, 100, 60), meterRegistry);
+    }
+
+    @Test
+    void chat_ShouldServeNormalizedRepeatedPromptFromCache() {
+        StubChatModel model = new StubChatModel(new CountDownLatch(0));
+        AIService service = service(model);
+
+        String first = service.chat("Como aprender   Docker?");
+        String second = service.chat("  Como aprender Docker?\n");
+
+        assertEquals(first, second);
+        assertEquals(1, model.calls.get());
+        AICacheStatsDTO stats = service.getCacheStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, meterRegistry.get("ai.model.requests").tag("operation", "chat").timer().count());
+    }
+
+    @Test
+    void chat_ShouldCoalesceConcurrentIdenticalPrompts() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StubChatModel model = new StubChatModel(release);
+        AIService service = service(model);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(pool.submit(() -> service.chat("mesma pergunta")));
+            }
+            while (service.getCacheStats().getCoalescedCount() < 3) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("resposta 1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, model.calls.get());
+            assertEquals(3, service.getCacheStats().getHitCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void chat_ShouldNotCacheFailures() {
+        StubChatModel model = new StubChatModel(new CountDownLatch(0));
+        AIService service = service(model);
+
+        model.fail = true;
+        assertThrows(IllegalStateException.class, () -> service.chat("pergunta"));
+        model.fail = false;
+
+        assertEquals("resposta 2", service.chat("pergunta"));
+        assertEquals(2, model.calls.get());
+    }
+
+    @Test
+    void keyFor_ShouldDifferByModelAndTemperature() {
+        AIResponseCache cache = new AIResponseCache("gpt-test", 0.7, 100, 60);
+
+        assertEquals(cache.keyFor("a  b"), cache.keyFor("a b"));
+        assertNotEquals(cache.keyFor("a b"), new AIResponseCache("gpt-test", 0.2, 100, 60).keyFor("a b"));
+        assertNotEquals(cache.keyFor("a b"), new AIResponseCache("gpt-outro", 0.7, 100, 60).keyFor("a b"));
+    }
+}
@@ -0,0 +1,30 @@
+package com.devops.qas.tests.messaging.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MqttConfigTest {
+
+    @Test
+    void subscriptions_ShouldPrefixSharedGroupAndAddCborTopics() {
+        String[] subscriptions = MqttConfig.subscriptions(
+                List.of("recommendations/topic", " telemetry/study "), "telemetry-ingestion");
+
+        assertArrayEquals(new String[]{
+                "$share/telemetry-ingestion/recommendations/topic",
+                "$share/telemetry-ingestion/recommendations/topic/cbor",
+                "$share/telemetry-ingestion/telemetry/study",
+                "$share/telemetry-ingestion/telemetry/study/cbor"
+        }, subscriptions);
+    }
+
+    @Test
+    void subscriptions_ShouldUsePlainTopicsWithoutGroup() {
+        String[] subscriptions = MqttConfig.subscriptions(List.of("recommendations/topic", ""), "");
+
+        assertArrayEquals(new String[]{"recommendations/topic", "recommendations/topic/cbor"}, subscriptions);
+    }
+}
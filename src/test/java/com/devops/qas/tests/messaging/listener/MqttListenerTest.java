@@ -0,0 +1,85 @@
+package com.devops.qas.tests.messaging.listener;
+
+import com.devops.qas.tests.telemetry.service.TelemetryEventService;
+import com.devops.qas.tests.telemetry.service.TelemetryPayloadFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MqttListenerTest {
+
+    private static final String PAYLOAD = "{\"studentId\":1,\"category\":\"DevOps\"}";
+
+    @Mock
+    private TelemetryEventService telemetryEventService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private MqttListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new MqttListener(telemetryEventService, meterRegistry);
+    }
+
+    @Test
+    void handleMqttMessage_ShouldPassBytePayloadWithoutCopy() {
+        byte[] payload = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+        when(telemetryEventService.processIncomingPayload(payload, TelemetryPayloadFormat.JSON)).thenReturn(true);
+
+        listener.handleMqttMessage(MessageBuilder.withPayload(payload)
+                .setHeader("mqtt_receivedTopic", "recommendations/topic").build());
+
+        verify(telemetryEventService).processIncomingPayload(same(payload), eq(TelemetryPayloadFormat.JSON));
+        assertEquals(1.0, meterRegistry.get("mqtt.messages.received").counter().count());
+    }
+
+    @Test
+    void handleMqttMessage_ShouldEncodeStringPayloadAndCountParseFailures() {
+        when(telemetryEventService.processIncomingPayload(any(byte[].class), any())).thenReturn(false);
+
+        listener.handleMqttMessage(MessageBuilder.withPayload("{invalido").build());
+
+        verify(telemetryEventService).processIncomingPayload(
+                "{invalido".getBytes(StandardCharsets.UTF_8), TelemetryPayloadFormat.JSON);
+        assertEquals(1.0, meterRegistry.get("mqtt.messages.parse.failures").tag("topic", "unknown").counter().count());
+    }
+
+    @Test
+    void handleMqttMessage_ShouldDecodeCborTopicAsCbor() {
+        byte[] payload = {(byte) 0xa1, 0x61, 0x61, 0x01};
+        when(telemetryEventService.processIncomingPayload(payload, TelemetryPayloadFormat.CBOR)).thenReturn(true);
+
+        listener.handleMqttMessage(MessageBuilder.withPayload(payload)
+                .setHeader("mqtt_receivedTopic", "recommendations/topic/cbor").build());
+
+        verify(telemetryEventService).processIncomingPayload(same(payload), eq(TelemetryPayloadFormat.CBOR));
+        assertEquals(4.0, meterRegistry.get("mqtt.messages.payload.bytes").tag("format", "cbor").summary().totalAmount());
+    }
+
+    @Test
+    void handleMqttMessage_ShouldReuseMetersRegisteredPerTopicAndFormat() {
+        when(telemetryEventService.processIncomingPayload(any(byte[].class), any())).thenReturn(true);
+        int formats = meterRegistry.get("mqtt.messages.payload.bytes").summaries().size();
+
+        listener.handleMqttMessage(MessageBuilder.withPayload(PAYLOAD).setHeader("mqtt_receivedTopic", "telemetry/study").build());
+        int meters = meterRegistry.getMeters().size();
+        listener.handleMqttMessage(MessageBuilder.withPayload(PAYLOAD).setHeader("mqtt_receivedTopic", "telemetry/study").build());
+
+        assertEquals(TelemetryPayloadFormat.values().length, formats);
+        assertEquals(meters, meterRegistry.getMeters().size());
+        assertEquals(2.0, meterRegistry.get("mqtt.messages.received").tag("topic", "telemetry/study").counter().count());
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -43,25 +44,50 @@ class RecommendationRepositoryTest {
     }
 
     @Test
-    void findByStudentIdAndCategoryContainingIgnoreCase_ShouldReturnFiltered() {
-        Recommendation rec1 = Recommendation.builder()
-                .studentId(1L)
-                .courseName("DevOps Basics")
-                .category("Technology")
-                .build();
-        Recommendation rec2 = Recommendation.builder()
-                .studentId(1L)
-                .courseName("Management 101")
-                .category("Business")
-                .build();
-        entityManager.persist(rec1);
-        entityManager.persist(rec2);
+    void markSaved_ShouldFlipOnlyUnsavedRow() {
+        entityManager.persist(Recommendation.builder().studentId(1L).courseName("Course 1").category("Tech").build());
         entityManager.flush();
 
-        List<Recommendation> found = repository.findByStudentIdAndCategoryContainingIgnoreCase(1L, "tech");
+        assertThat(repository.markSaved(1L, "Course 1")).containsExactly("Tech");
+        assertThat(repository.markSaved(1L, "Course 1")).isEmpty();
+        assertThat(repository.markSaved(1L, "Missing")).isEmpty();
+
+        entityManager.clear();
+        assertThat(repository.findByStudentId(1L)).singleElement().matches(Recommendation::isSaved);
+    }
+
+    @Test
+    void insertIfAbsent_ShouldNotDuplicateStudentCourse() {
+        assertThat(repository.insertUsefulIfAbsent(2L, "Course 1")).isEqualTo(1);
+        assertThat(repository.insertSavedIfAbsent(2L, "Course 1")).isZero();
 
+        entityManager.clear();
+        List<Recommendation> found = repository.findByStudentId(2L);
         assertThat(found).hasSize(1);
-        assertThat(found.get(0).getCourseName()).isEqualTo("DevOps Basics");
+        assertThat(found.get(0).isUseful()).isTrue();
+        assertThat(found.get(0).isSaved()).isFalse();
     }
-}
 
+    @Test
+    void aggregateByCategoryAndCourse_ShouldComputeTotalsInDatabase() {
+        entityManager.persist(Recommendation.builder().studentId(1L).courseName("A").category("Agg").isSaved(true).build());
+        entityManager.persist(Recommendation.builder().studentId(2L).courseName("A").category("Agg").isUseful(true).build());
+        entityManager.persist(Recommendation.builder().studentId(1L).courseName("B").category("Agg").isUseful(true).build());
+        entityManager.flush();
+
+        CourseStatsView course = repository.aggregateByCategoryAndCourse().stream()
+                .filter(view -> view.getCategory().equals("Agg") && view.getCourseName().equals("A"))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(course.getTotalCount()).isEqualTo(2L);
+        assertThat(course.getSavedCount()).isEqualTo(1L);
+        assertThat(course.getUsefulCount()).isEqualTo(1L);
+
+        try (Stream<CategoryStudentView> students = repository.streamDistinctCategoryStudents()) {
+            assertThat(students.filter(view -> view.getCategory().equals("Agg")))
+                    .extracting(CategoryStudentView::getStudentId)
+                    .containsExactlyInAnyOrder(1L, 2L);
+        }
+    }
+}
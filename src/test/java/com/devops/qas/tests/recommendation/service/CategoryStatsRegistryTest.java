@@ -0,0 +1,126 @@
+package com.devops.qas.tests.recommendation.service;
+
+import com.devops.qas.tests.recommendation.repository.CategoryStudentView;
+import com.devops.qas.tests.recommendation.repository.CourseStatsView;
+import com.devops.qas.tests.recommendation.repository.RecommendationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryStatsRegistryTest {
+
+    @Mock
+    private RecommendationRepository repository;
+
+    @InjectMocks
+    private CategoryStatsRegistry registry;
+
+    @Test
+    void rebuild_ShouldLoadCountersFromDatabase() {
+        when(repository.aggregateByCategoryAndCourse()).thenReturn(List.of(
+                course("Tech", "Docker", 3L, 1L, 2L),
+                course("Tech", "Kubernetes", 1L, 0L, 1L)));
+        when(repository.streamDistinctCategoryStudents()).thenReturn(Stream.of(
+                student("Tech", 1L), student("Tech", 2L)));
+
+        registry.rebuild();
+
+        CategoryStatsRegistry.CategorySnapshot tech = registry.snapshotMatching("tech", 10);
+        assertEquals(4L, tech.getTotalRecommendations());
+        assertEquals(2L, tech.getTotalStudents());
+        assertEquals(1L, tech.getSavedCount());
+        assertEquals(3L, tech.getUsefulCount());
+        assertEquals("Docker", tech.getTopCourses().get(0).getCourseName());
+    }
+
+    @Test
+    void rebuild_ShouldKeepWritesRecordedWhileReadingDatabase() {
+        when(repository.aggregateByCategoryAndCourse()).thenAnswer(invocation -> {
+            // Escrita concorrente gravada depois da leitura do banco
+            registry.recordInsert("Tech", 3L, "Docker", true, false);
+            return List.of(course("Tech", "Docker", 3L, 1L, 2L));
+        });
+        when(repository.streamDistinctCategoryStudents()).thenReturn(Stream.of(
+                student("Tech", 1L), student("Tech", 2L)));
+
+        registry.rebuild();
+        registry.recordFlagChange("Tech", "Docker", false, true);
+
+        CategoryStatsRegistry.CategorySnapshot tech = registry.snapshotMatching("tech", 10);
+        assertEquals(4L, tech.getTotalRecommendations());
+        assertEquals(3L, tech.getTotalStudents());
+        assertEquals(2L, tech.getSavedCount());
+        assertEquals(3L, tech.getUsefulCount());
+    }
+
+    @Test
+    void recordInsertAndFlagChange_ShouldUpdateCounters() {
+        registry.recordInsert(null, 1L, "Docker", true, false);
+        registry.recordInsert("", 2L, "Docker", false, true);
+        registry.recordFlagChange(null, "Docker", false, true);
+
+        List<CategoryStatsRegistry.CategorySnapshot> all = registry.snapshotAll(10);
+
+        assertEquals(1, all.size());
+        CategoryStatsRegistry.CategorySnapshot snapshot = all.get(0);
+        assertEquals(RecommendationRepository.UNCATEGORIZED, snapshot.getCategory());
+        assertEquals(2L, snapshot.getTotalRecommendations());
+        assertEquals(2L, snapshot.getTotalStudents());
+        assertEquals(1L, snapshot.getSavedCount());
+        assertEquals(2L, snapshot.getUsefulCount());
+        assertEquals(2L, snapshot.getTopCourses().get(0).getTotalCount());
+    }
+
+    @Test
+    void snapshotMatching_ShouldCountSharedStudentsOnce() {
+        registry.recordInsert("Cloud AWS", 1L, "EC2", false, false);
+        registry.recordInsert("Cloud Azure", 1L, "VMs", false, false);
+        registry.recordInsert("Cloud Azure", 2L, "VMs", false, false);
+        registry.recordInsert("Business", 3L, "MBA", false, false);
+
+        CategoryStatsRegistry.CategorySnapshot cloud = registry.snapshotMatching("CLOUD", 1);
+
+        assertEquals(3L, cloud.getTotalRecommendations());
+        assertEquals(2L, cloud.getTotalStudents());
+        assertEquals(1, cloud.getTopCourses().size());
+        assertEquals("VMs", cloud.getTopCourses().get(0).getCourseName());
+        assertEquals(0L, registry.snapshotMatching("inexistente", 10).getTotalRecommendations());
+    }
+
+    @Test
+    void hyperLogLog_ShouldStayWithinErrorBoundForLargeCardinality() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long id = 1; id <= 100_000; id++) {
+            sketch.add(id);
+        }
+
+        assertEquals(100_000, sketch.estimate(), 100_000 * 0.05);
+    }
+
+    private static CourseStatsView course(String category, String name, long total, long saved, long useful) {
+        return new CategoryStatsRegistry.CourseSnapshot(category, name, total, saved, useful);
+    }
+
+    private static CategoryStudentView student(String category, long studentId) {
+        return new CategoryStudentView() {
+            @Override
+            public String getCategory() {
+                return category;
+            }
+
+            @Override
+            public Long getStudentId() {
+                return studentId;
+            }
+        };
+    }
+}
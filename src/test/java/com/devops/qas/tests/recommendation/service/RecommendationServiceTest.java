@@ -2,20 +2,25 @@ package com.devops.qas.tests.recommendation.service;
 
 import com.devops.qas.tests.recommendation.domain.entity.Recommendation;
 import com.devops.qas.tests.recommendation.dto.RecommendationDTO;
+import com.devops.qas.tests.recommendation.repository.RecommendationBatchRepository;
 import com.devops.qas.tests.recommendation.repository.RecommendationRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +29,15 @@ class RecommendationServiceTest {
     @Mock
     private RecommendationRepository repository;
 
+    @Mock
+    private RecommendationBatchRepository batchRepository;
+
+    @Mock
+    private CategoryStatsRegistry categoryStats;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager("recommendations");
+
     @InjectMocks
     private RecommendationService service;
 
@@ -74,36 +88,90 @@ class RecommendationServiceTest {
         assertFalse(service.sendRecommendationEmail(1L, "test@test.com"));
     }
 
+    @Test
+    void getRecommendations_ShouldServeRepeatedCallsFromCache() {
+        when(repository.findByStudentId(1L)).thenReturn(List.of(Recommendation.builder().courseName("C1").build()));
+
+        service.getRecommendations(1L);
+        service.getRecommendations(1L);
+
+        verify(repository, times(1)).findByStudentId(1L);
+    }
+
     @Test
     void filterRecommendationsByCategory_ShouldReturnFiltered() {
-        Recommendation rec = Recommendation.builder().courseName("C1").category("Tech").build();
-        when(repository.findByStudentIdAndCategoryContainingIgnoreCase(1L, "Tech")).thenReturn(List.of(rec));
+        Recommendation tech = Recommendation.builder().courseName("C1").category("Technology").build();
+        Recommendation business = Recommendation.builder().courseName("C2").category("Business").build();
+        when(repository.findByStudentId(1L)).thenReturn(List.of(tech, business));
 
-        List<RecommendationDTO> result = service.filterRecommendationsByCategory(1L, "Tech");
+        List<RecommendationDTO> result = service.filterRecommendationsByCategory(1L, "tech");
         assertEquals(1, result.size());
+        assertEquals("C1", result.get(0).getCourseName());
     }
 
     @Test
     void filterRecommendationsByCategory_ShouldHandleNullCategory() {
-        when(repository.findByStudentIdAndCategoryContainingIgnoreCase(1L, "")).thenReturn(Collections.emptyList());
-        service.filterRecommendationsByCategory(1L, null);
-        verify(repository).findByStudentIdAndCategoryContainingIgnoreCase(1L, "");
+        Recommendation withCategory = Recommendation.builder().courseName("C1").category("Tech").build();
+        Recommendation withoutCategory = Recommendation.builder().courseName("C2").build();
+        when(repository.findByStudentId(1L)).thenReturn(List.of(withCategory, withoutCategory));
+
+        List<RecommendationDTO> result = service.filterRecommendationsByCategory(1L, null);
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void saveRecommendationForLater_ShouldEvictCachedStudent() {
+        when(repository.findByStudentId(1L)).thenReturn(Collections.emptyList());
+        when(repository.markSaved(1L, "New Course")).thenReturn(List.of("Tech"));
+
+        service.getRecommendations(1L);
+        service.saveRecommendationForLater(1L, "New Course");
+        service.getRecommendations(1L);
+
+        verify(repository, times(2)).findByStudentId(1L);
     }
 
     @Test
-    void saveRecommendationForLater_ShouldSaveNew() {
+    void saveRecommendationForLater_ShouldKeepCacheWhenNothingChanged() {
         when(repository.findByStudentId(1L)).thenReturn(Collections.emptyList());
+
+        service.getRecommendations(1L);
+        service.saveRecommendationForLater(1L, "Already Saved");
+        service.getRecommendations(1L);
+
+        verify(repository, times(1)).findByStudentId(1L);
+    }
+
+    @Test
+    void saveRecommendationForLater_ShouldInsertNew() {
+        when(repository.insertSavedIfAbsent(1L, "New Course")).thenReturn(1);
+
         assertTrue(service.saveRecommendationForLater(1L, "New Course"));
-        verify(repository).save(any(Recommendation.class));
+        verify(repository).insertSavedIfAbsent(1L, "New Course");
+        verify(repository, never()).save(any(Recommendation.class));
+        verify(categoryStats).recordInsert(null, 1L, "New Course", true, false);
     }
 
     @Test
     void saveRecommendationForLater_ShouldUpdateExisting() {
-        Recommendation existing = Recommendation.builder().studentId(1L).courseName("Existing").isSaved(false).build();
-        when(repository.findByStudentId(1L)).thenReturn(List.of(existing));
-        
+        when(repository.markSaved(1L, "Existing")).thenReturn(List.of("Tech"));
+
         assertTrue(service.saveRecommendationForLater(1L, "Existing"));
-        verify(repository).save(argThat(r -> r.isSaved() && r.getCourseName().equals("Existing")));
+        verify(repository, never()).insertSavedIfAbsent(anyLong(), anyString());
+        verify(repository, never()).findByStudentId(anyLong());
+        verify(categoryStats).recordFlagChange("Tech", "Existing", true, false);
+    }
+
+    @Test
+    void saveRecommendationForLater_ShouldRetryWhenConcurrentInsertWins() {
+        when(repository.markSaved(1L, "Course")).thenReturn(List.of());
+        when(repository.insertSavedIfAbsent(1L, "Course"))
+                .thenThrow(new DataIntegrityViolationException("uk_recommendations_student_course"))
+                .thenReturn(0);
+
+        assertTrue(service.saveRecommendationForLater(1L, "Course"));
+        verify(repository, times(2)).markSaved(1L, "Course");
+        verifyNoInteractions(categoryStats);
     }
 
     @Test
@@ -114,19 +182,21 @@ class RecommendationServiceTest {
     }
 
     @Test
-    void markRecommendationAsUseful_ShouldSaveNew() {
-        when(repository.findByStudentId(1L)).thenReturn(Collections.emptyList());
+    void markRecommendationAsUseful_ShouldInsertNew() {
+        when(repository.insertUsefulIfAbsent(1L, "New Course")).thenReturn(1);
+
         assertTrue(service.markRecommendationAsUseful(1L, "New Course"));
-        verify(repository).save(any(Recommendation.class));
+        verify(repository).insertUsefulIfAbsent(1L, "New Course");
+        verify(repository, never()).save(any(Recommendation.class));
     }
 
     @Test
     void markRecommendationAsUseful_ShouldUpdateExisting() {
-        Recommendation existing = Recommendation.builder().studentId(1L).courseName("Existing").isUseful(false).build();
-        when(repository.findByStudentId(1L)).thenReturn(List.of(existing));
-        
+        when(repository.markUseful(1L, "Existing")).thenReturn(Collections.singletonList(null));
+
         assertTrue(service.markRecommendationAsUseful(1L, "Existing"));
-        verify(repository).save(argThat(r -> r.isUseful() && r.getCourseName().equals("Existing")));
+        verify(repository, never()).insertUsefulIfAbsent(anyLong(), anyString());
+        verify(categoryStats).recordFlagChange(null, "Existing", false, true);
     }
 
     @Test
@@ -135,4 +205,20 @@ class RecommendationServiceTest {
         assertFalse(service.markRecommendationAsUseful(1L, ""));
         assertFalse(service.markRecommendationAsUseful(1L, "  "));
     }
+
+    @Test
+    void addGeneratedRecommendations_ShouldCountOnlyInsertedRowsAndEvictStudents() {
+        Recommendation existing = Recommendation.builder().studentId(1L).courseName("Docker").category("DevOps").build();
+        Recommendation created = Recommendation.builder().studentId(2L).courseName("Kubernetes").category("DevOps").build();
+        when(batchRepository.insertIfAbsent(List.of(existing, created))).thenReturn(new int[]{0, 1});
+        when(repository.findByStudentId(2L)).thenReturn(Collections.emptyList());
+        service.getRecommendations(2L);
+
+        assertEquals(1, service.addGeneratedRecommendations(List.of(existing, created)));
+        service.getRecommendations(2L);
+
+        verify(categoryStats).recordInsert("DevOps", 2L, "Kubernetes", false, false);
+        verify(categoryStats, never()).recordInsert("DevOps", 1L, "Docker", false, false);
+        verify(repository, times(2)).findByStudentId(2L);
+    }
 }
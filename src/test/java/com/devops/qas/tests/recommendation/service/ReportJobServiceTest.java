@@ -0,0 +1,86 @@
+package com.devops.qas.tests.recommendation.service;
+
+import com.devops.qas.tests.messaging.config.RabbitMQConfig;
+import com.devops.qas.tests.messaging.service.RabbitMQService;
+import com.devops.qas.tests.recommendation.dto.CategoryReportDTO;
+import com.devops.qas.tests.recommendation.dto.ReportJobDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpTimeoutException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobServiceTest {
+
+    @Mock
+    private CategoryReportService reportService;
+
+    @Mock
+    private RabbitMQService rabbitMQService;
+
+    private ReportJobService service(int batchSize) {
+        ReportJobService service = new ReportJobService(reportService, rabbitMQService, 1, 1, 5, batchSize, 1000, 10);
+        service.start();
+        return service;
+    }
+
+    private List<CategoryReportDTO> reports(int count) {
+        List<CategoryReportDTO> reports = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reports.add(CategoryReportDTO.builder().category("Cat " + i).build());
+        }
+        return reports;
+    }
+
+    @Test
+    void submitAllCategoriesReport_ShouldPublishInConfirmedBatches() {
+        when(reportService.buildAllCategoriesReports("a@b.com")).thenReturn(reports(5));
+        ReportJobService service = service(2);
+
+        ReportJobDTO submitted = service.submitAllCategoriesReport("a@b.com");
+        service.stop();
+
+        verify(rabbitMQService, times(3)).sendBatch(eq(RabbitMQConfig.EMAIL_REPORTS_EXCHANGE),
+                eq(RabbitMQConfig.EMAIL_REPORTS_ROUTING_KEY), anyList(), eq(1000L));
+        ReportJobDTO job = service.getJob(submitted.getJobId()).orElseThrow();
+        assertEquals(ReportJobDTO.Status.COMPLETED, job.getStatus());
+        assertEquals(5, job.getTotalReports());
+        assertEquals(5, job.getPublishedReports());
+        assertNotNull(job.getFinishedAt());
+        assertNotNull(job.getPublishMs());
+    }
+
+    @Test
+    void submitAllCategoriesReport_ShouldRecordFailure() {
+        when(reportService.buildAllCategoriesReports("a@b.com")).thenReturn(reports(3));
+        doNothing().doThrow(new AmqpTimeoutException("sem confirmação"))
+                .when(rabbitMQService).sendBatch(anyString(), anyString(), anyList(), anyLong());
+        ReportJobService service = service(2);
+
+        ReportJobDTO submitted = service.submitAllCategoriesReport("a@b.com");
+        service.stop();
+
+        ReportJobDTO job = service.getJob(submitted.getJobId()).orElseThrow();
+        assertEquals(ReportJobDTO.Status.FAILED, job.getStatus());
+        assertEquals(2, job.getPublishedReports());
+        assertEquals("sem confirmação", job.getError());
+    }
+
+    @Test
+    void getJob_ShouldReturnEmptyForUnknownId() {
+        ReportJobService service = service(10);
+        service.stop();
+
+        assertTrue(service.getJob("desconhecido").isEmpty());
+    }
+}
@@ -0,0 +1,148 @@
+package com.devops.qas.tests.telemetry.repository;
+
+import com.devops.qas.tests.telemetry.dto.TelemetryEventFilter;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mede a latência das consultas de telemetria e recomendações antes e depois
+ * da migração V2 (índices), sobre um H2 em memória com {@code rows} linhas. A
+ * V7 é aplicada antes da medição "depois", pois o repositório lê suas colunas.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.devops.qas.tests.telemetry.repository.TelemetryIndexBenchmark \
+ *     -Dexec.args="1000000"
+ * </pre>
+ */
+public final class TelemetryIndexBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 200;
+    private static final int STUDENTS = 20_000;
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private TelemetryIndexBenchmark() {
+    }
+
+    public static void main(String[] args) throws SQLException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+                "jdbc:h2:mem:index-benchmark;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE", "sa", "", true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V1__create_base_schema.sql"));
+            populate(jdbc, rows);
+
+            Map<String, double[]> before = measureBeforeIndexes(jdbc);
+            long start = System.nanoTime();
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/V2__add_access_pattern_indexes.sql"));
+            long migrationMs = (System.nanoTime() - start) / 1_000_000;
+            // findPage lê as colunas promovidas na V7; só colunas, sem índices, fora da medição da V2
+            ScriptUtils.executeSqlScript(connection,
+                    new ClassPathResource("db/migration/V7__promote_telemetry_metadata_keys.sql"));
+            Map<String, double[]> after = measureAfterIndexes(jdbc);
+
+            System.out.printf("%,d linhas por tabela, migração V2 em %d ms%n", rows, migrationMs);
+            System.out.printf("%-28s %14s %14s %14s %14s%n", "consulta", "antes p50 ms", "antes p95 ms", "depois p50 ms", "depois p95 ms");
+            before.forEach((name, b) -> {
+                double[] a = after.get(name);
+                System.out.printf("%-28s %14.3f %14.3f %14.3f %14.3f%n", name, b[0], b[1], a[0], a[1]);
+            });
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private static void populate(JdbcTemplate jdbc, int rows) {
+        jdbc.update("INSERT INTO study_session_events (student_id, device_id, category, course_name, "
+                + "duration_minutes, engagement_score, start_time, end_time, metadata_json, received_at) "
+                + "SELECT MOD(x, " + STUDENTS + "), CONCAT('iot-', MOD(x, 997)), "
+                + "CASE MOD(x, 5) WHEN 0 THEN 'DevOps' WHEN 1 THEN 'Cloud' WHEN 2 THEN 'Data Science' "
+                + "WHEN 3 THEN 'Backend' ELSE 'Frontend' END, "
+                + "CONCAT('Course ', MOD(x, 50)), MOD(x, 120), MOD(x, 100) / 100.0, ?, ?, "
+                + "'{\"focusLevel\":0.8,\"interruptions\":1}', "
+                + "DATEADD(SECOND, -x * 30, CAST(? AS TIMESTAMP(6) WITH TIME ZONE)) "
+                + "FROM SYSTEM_RANGE(1, " + rows + ")", NOW, NOW, NOW);
+        jdbc.update("INSERT INTO recommendations (student_id, course_name, category, is_saved, is_useful) "
+                + "SELECT MOD(x, " + (rows / 5) + "), CONCAT('Course ', MOD(x / 5, 50)), "
+                + "CONCAT('Category ', MOD(x, 10)), MOD(x, 3) = 0, MOD(x, 4) = 0 FROM SYSTEM_RANGE(1, " + rows + ")");
+        jdbc.execute("ANALYZE");
+    }
+
+    private static Map<String, double[]> measureBeforeIndexes(JdbcTemplate jdbc) {
+        String page = " ORDER BY received_at DESC, id DESC LIMIT 51";
+        String columns = "SELECT id, student_id, device_id, category, course_name, duration_minutes, engagement_score, "
+                + "start_time, end_time, metadata_json, received_at FROM study_session_events";
+        Map<String, double[]> results = new LinkedHashMap<>();
+        results.put("eventos recentes", measure(() -> jdbc.queryForList(columns + page)));
+        results.put("eventos por aluno", measure(() -> jdbc.queryForList(
+                columns + " WHERE student_id = ?" + page, randomStudent())));
+        results.put("eventos por categoria", measure(() -> jdbc.queryForList(
+                columns + " WHERE LOWER(category) = LOWER(?)" + page, "DevOps")));
+        results.put("eventos aluno + período", measure(() -> jdbc.queryForList(
+                columns + " WHERE student_id = ? AND received_at >= ? AND received_at < ?" + page,
+                randomStudent(), NOW.minusDays(200), NOW.minusDays(100))));
+        results.putAll(measureRecommendations(jdbc));
+        return results;
+    }
+
+    private static Map<String, double[]> measureAfterIndexes(JdbcTemplate jdbc) {
+        StudySessionEventQueryRepository repository = new StudySessionEventQueryRepository(jdbc);
+        Map<String, double[]> results = new LinkedHashMap<>();
+        results.put("eventos recentes", measure(() -> repository.findPage(filter().build())));
+        results.put("eventos por aluno", measure(() -> repository.findPage(
+                filter().studentId(randomStudent()).build())));
+        results.put("eventos por categoria", measure(() -> repository.findPage(
+                filter().category("DevOps").build())));
+        results.put("eventos aluno + período", measure(() -> repository.findPage(
+                filter().studentId(randomStudent()).from(NOW.minusDays(200)).to(NOW.minusDays(100)).build())));
+        results.putAll(measureRecommendations(jdbc));
+        return results;
+    }
+
+    private static TelemetryEventFilter.TelemetryEventFilterBuilder filter() {
+        return TelemetryEventFilter.builder().limit(51);
+    }
+
+    private static Map<String, double[]> measureRecommendations(JdbcTemplate jdbc) {
+        Map<String, double[]> results = new LinkedHashMap<>();
+        results.put("recomendações por aluno", measure(() -> jdbc.queryForList(
+                "SELECT * FROM recommendations WHERE student_id = ?", randomStudent())));
+        results.put("recomendação aluno + curso", measure(() -> jdbc.queryForList(
+                "SELECT * FROM recommendations WHERE student_id = ? AND course_name = ?", randomStudent(), "Course 7")));
+        results.put("recomendações por categoria", measure(() -> jdbc.queryForObject(
+                "SELECT COUNT(*) FROM recommendations WHERE category = ?", Long.class, "Category 3")));
+        return results;
+    }
+
+    private static long randomStudent() {
+        return ThreadLocalRandom.current().nextInt(STUDENTS);
+    }
+
+    private static double[] measure(Runnable query) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            query.run();
+        }
+        double[] samples = new double[MEASURED_ITERATIONS];
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            long start = System.nanoTime();
+            query.run();
+            samples[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(samples);
+        return new double[]{samples[MEASURED_ITERATIONS / 2], samples[(int) (MEASURED_ITERATIONS * 0.95)]};
+    }
+}
@@ -0,0 +1,161 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventQueryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.TimeStampMicroTZVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryArrowExporterTest {
+
+    private static final OffsetDateTime FROM = OffsetDateTime.parse("2024-02-01T00:00:00Z");
+    private static final OffsetDateTime TO = OffsetDateTime.parse("2024-02-02T00:00:00Z");
+
+    @TempDir
+    Path exportDir;
+
+    private final List<StudySessionEvent> events = new ArrayList<>();
+    private final StudySessionEventQueryRepository repository = new StudySessionEventQueryRepository(null) {
+        @Override
+        public void forEachInRange(OffsetDateTime from, OffsetDateTime to, int fetchSize,
+                                   Consumer<StudySessionEvent> consumer) {
+            events.forEach(consumer);
+        }
+    };
+    private TelemetryArrowExporter exporter;
+
+    private TelemetryArrowExporter exporter(int batchRows) {
+        exporter = new TelemetryArrowExporter(repository, new SimpleMeterRegistry(), false, exportDir.toString(),
+                batchRows, 100, 16, 1);
+        return exporter;
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.stop();
+    }
+
+    private void addEvent(long id, Long studentId, String category, Double engagement) {
+        events.add(StudySessionEvent.builder()
+                .id(id)
+                .studentId(studentId)
+                .category(category)
+                .engagementScore(engagement)
+                .receivedAt(OffsetDateTime.parse("2024-02-01T10:00:00.123456Z"))
+                .build());
+    }
+
+    private List<Object[]> read(InputStream in) throws IOException {
+        List<Object[]> rows = new ArrayList<>();
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowStreamReader reader = new ArrowStreamReader(in, allocator)) {
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            while (reader.loadNextBatch()) {
+                BigIntVector id = (BigIntVector) root.getVector("id");
+                BigIntVector studentId = (BigIntVector) root.getVector("student_id");
+                VarCharVector category = (VarCharVector) root.getVector("category");
+                Float8Vector engagement = (Float8Vector) root.getVector("engagement_score");
+                TimeStampMicroTZVector receivedAt = (TimeStampMicroTZVector) root.getVector("received_at");
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    rows.add(new Object[]{
+                            id.get(i),
+                            studentId.isNull(i) ? null : studentId.get(i),
+                            category.isNull(i) ? null : new String(category.get(i), StandardCharsets.UTF_8),
+                            engagement.isNull(i) ? null : engagement.get(i),
+                            receivedAt.get(i)});
+                }
+            }
+        }
+        return rows;
+    }
+
+    @Test
+    void export_ShouldWriteAllEventsAcrossSeveralBatches() throws IOException {
+        addEvent(1, 10L, "DevOps", 0.8);
+        addEvent(2, null, null, null);
+        addEvent(3, 11L, "Cloud", 0.5);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exporter(2).export(FROM, TO, out);
+
+        List<Object[]> rows = read(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(3, exported);
+        assertEquals(3, rows.size());
+        assertArrayEquals(new Object[]{1L, 10L, "DevOps", 0.8, 1706781600123456L}, rows.get(0));
+        assertArrayEquals(new Object[]{2L, null, null, null, 1706781600123456L}, rows.get(1));
+        assertEquals("Cloud", rows.get(2)[2]);
+    }
+
+    @Test
+    void acquire_ShouldRejectAboveConcurrencyLimit() {
+        exporter(10).acquire();
+
+        assertThrows(TelemetryExportBusyException.class, exporter::acquire);
+        exporter.release();
+        exporter.acquire();
+    }
+
+    @Test
+    void exportDay_ShouldWriteDailyFileOnce() throws IOException {
+        addEvent(1, 10L, "DevOps", 0.8);
+
+        Path file = exporter(10).exportDay(LocalDate.parse("2024-02-01"));
+        addEvent(2, 11L, "Cloud", 0.5);
+        Path again = exporter.exportDay(LocalDate.parse("2024-02-01"));
+
+        assertEquals(exportDir.resolve("study_session_events-2024-02-01.arrows"), file);
+        assertEquals(file, again);
+        try (InputStream in = Files.newInputStream(file)) {
+            assertEquals(1, read(in).size());
+        }
+        assertFalse(Files.exists(exportDir.resolve("study_session_events-2024-02-01.arrows.partial")));
+    }
+
+    @Test
+    void exportMissingDays_ShouldFillGapSinceLastExportedFile() throws IOException {
+        addEvent(1, 10L, "DevOps", 0.8);
+        exporter(10).exportDay(LocalDate.parse("2024-02-01"));
+        Files.createFile(exportDir.resolve("study_session_events-rascunho.arrows"));
+
+        exporter.exportMissingDays(LocalDate.parse("2024-02-05"));
+
+        for (String day : List.of("2024-02-02", "2024-02-03", "2024-02-04")) {
+            assertTrue(Files.exists(exportDir.resolve("study_session_events-" + day + ".arrows")), day);
+        }
+        assertFalse(Files.exists(exportDir.resolve("study_session_events-2024-02-05.arrows")));
+    }
+
+    @Test
+    void exportMissingDays_ShouldExportOnlyYesterdayWhenNothingWasExported() throws IOException {
+        exporter(10).exportMissingDays(LocalDate.parse("2024-02-05"));
+
+        try (Stream<Path> files = Files.list(exportDir)) {
+            assertEquals(List.of(exportDir.resolve("study_session_events-2024-02-04.arrows")), files.toList());
+        }
+    }
+}
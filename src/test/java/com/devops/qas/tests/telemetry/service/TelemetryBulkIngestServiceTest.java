@@ -0,0 +1,168 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.BulkIngestResultDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventBatchRepository;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventQueryRepository;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryBulkIngestServiceTest {
+
+    @Mock
+    private StudySessionEventRepository repository;
+
+    @Mock
+    private StudySessionEventQueryRepository queryRepository;
+
+    @Mock
+    private TelemetryIngestionPipeline ingestionPipeline;
+
+    @Mock
+    private StudySessionEventBatchRepository batchRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TelemetryBulkIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        TelemetryEventService eventService = new TelemetryEventService(repository, queryRepository, ingestionPipeline,
+                new TelemetryDeduplicator(new SimpleMeterRegistry(), 10, 1000),
+                event -> { }, objectMapper);
+        service = new TelemetryBulkIngestService(eventService, batchRepository, eventPublisher, objectMapper, 2);
+    }
+
+    private InputStream body(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ingestNdjson_ShouldCountAcceptedAndRejectedLines() throws IOException {
+        List<Integer> batchSizes = new ArrayList<>();
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> {
+            batchSizes.add(inv.<List<StudySessionEvent>>getArgument(0).size());
+            return List.copyOf(inv.<List<StudySessionEvent>>getArgument(0));
+        });
+        String ndjson = """
+                {"studentId": 1, "courseName": "A", "startTime": "2025-01-01T10:00:00Z"}
+                {"studentId": 2, "courseName": "B"}
+
+                not-json
+                {"courseName": "sem aluno"}
+                {"studentId": 3, "courseName": "C"}
+                """;
+
+        BulkIngestResultDTO result = service.ingestNdjson(body(ndjson));
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertFalse(result.isTruncated());
+        assertTrue(result.getErrors().get(0).startsWith("4:"));
+        assertTrue(result.getErrors().get(1).startsWith("5:"));
+        assertEquals(List.of(2, 1), batchSizes);
+    }
+
+    @Test
+    void ingestNdjson_ShouldPublishOnlyInsertedRows() throws IOException {
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> List.of(inv.<List<StudySessionEvent>>getArgument(0).get(0)));
+
+        service.ingestNdjson(body("{\"studentId\": 1}\n{\"studentId\": 2}\n"));
+
+        ArgumentCaptor<TelemetryBatchPersistedEvent> published = ArgumentCaptor.forClass(TelemetryBatchPersistedEvent.class);
+        verify(eventPublisher).publishEvent(published.capture());
+        assertEquals(1, published.getValue().getEvents().size());
+        assertEquals(1L, published.getValue().getEvents().get(0).getStudentId());
+    }
+
+    @Test
+    void ingestNdjson_ShouldRejectNullLines() throws IOException {
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> List.copyOf(inv.getArgument(0)));
+
+        BulkIngestResultDTO result = service.ingestNdjson(body("null\n{\"studentId\": 1}\n"));
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertTrue(result.getErrors().get(0).startsWith("1:"));
+    }
+
+    @Test
+    void ingestNdjson_ShouldFallBackToRowByRowWhenBatchInsertFails() throws IOException {
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> {
+            List<StudySessionEvent> events = inv.getArgument(0);
+            if (events.stream().anyMatch(event -> event.getCourseName().length() > 10)) {
+                throw new DataIntegrityViolationException("Value too long for column");
+            }
+            return List.copyOf(events);
+        });
+        String ndjson = """
+                {"studentId": 1, "courseName": "A"}
+                {"studentId": 2, "courseName": "Nome de curso longo demais"}
+                {"studentId": 3, "courseName": "C"}
+                """;
+
+        BulkIngestResultDTO result = service.ingestNdjson(body(ndjson));
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertTrue(result.getErrors().get(0).startsWith("2: Falha ao gravar"));
+    }
+
+    @Test
+    void ingestJsonArray_ShouldRejectInvalidElementsAndKeepGoing() throws IOException {
+        String json = "[{\"studentId\": 1}, {\"studentId\": \"abc\"}, 42, {\"studentId\": 4}]";
+
+        BulkIngestResultDTO result = service.ingestJsonArray(body(json));
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        verify(batchRepository).insertAll(anyList());
+    }
+
+    @Test
+    void ingestJsonArray_ShouldStopOnMalformedJson() throws IOException {
+        String json = "[{\"studentId\": 1}, {\"studentId\": 2,";
+
+        BulkIngestResultDTO result = service.ingestJsonArray(body(json));
+
+        assertEquals(1, result.getAccepted());
+        assertTrue(result.isTruncated());
+    }
+
+    @Test
+    void ingestJsonArray_ShouldAcceptSingleObject() throws IOException {
+        List<StudySessionEvent> inserted = new ArrayList<>();
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> {
+            inserted.addAll(inv.getArgument(0));
+            return List.copyOf(inserted);
+        });
+
+        BulkIngestResultDTO result = service.ingestJsonArray(body("{\"studentId\": 7}"));
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(7L, inserted.get(0).getStudentId());
+    }
+}
@@ -0,0 +1,191 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventQueryRepository;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryEventServiceTest {
+
+    @Mock
+    private StudySessionEventRepository repository;
+
+    @Mock
+    private StudySessionEventQueryRepository queryRepository;
+
+    @Mock
+    private TelemetryIngestionPipeline ingestionPipeline;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ObjectMapper objectMapper;
+    private TelemetryEventService service;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        service = new TelemetryEventService(repository, queryRepository, ingestionPipeline,
+                new TelemetryDeduplicator(new SimpleMeterRegistry(), 10, 1000),
+                eventPublisher, objectMapper);
+    }
+
+    @Test
+    void processIncomingPayload_ShouldDecodeCborLikeJson() throws Exception {
+        StudySessionEventDTO dto = StudySessionEventDTO.builder()
+                .studentId(1042L)
+                .category("DevOps")
+                .courseName("Kubernetes Hands-on")
+                .durationMinutes(45)
+                .engagementScore(0.87)
+                .startTime(OffsetDateTime.of(2025, 1, 1, 13, 0, 0, 0, ZoneOffset.UTC))
+                .metadata(Map.of("focusLevel", 0.92, "interruptions", 2))
+                .build();
+        byte[] json = objectMapper.writeValueAsBytes(dto);
+        byte[] cbor = objectMapper.copyWith(new CBORFactory()).writeValueAsBytes(dto);
+
+        assertTrue(service.processIncomingPayload(cbor, TelemetryPayloadFormat.CBOR));
+        assertTrue(service.processIncomingPayload(json, TelemetryPayloadFormat.JSON));
+
+        ArgumentCaptor<StudySessionEvent> captor = ArgumentCaptor.forClass(StudySessionEvent.class);
+        verify(ingestionPipeline, times(2)).submit(captor.capture());
+        StudySessionEvent fromCbor = captor.getAllValues().get(0);
+        StudySessionEvent fromJson = captor.getAllValues().get(1);
+        assertEquals(fromJson.getStudentId(), fromCbor.getStudentId());
+        assertEquals(fromJson.getCourseName(), fromCbor.getCourseName());
+        assertEquals(fromJson.getEngagementScore(), fromCbor.getEngagementScore());
+        assertTrue(fromJson.getStartTime().isEqual(fromCbor.getStartTime()));
+        assertEquals(service.toDTO(fromJson).getMetadata(), service.toDTO(fromCbor).getMetadata());
+        assertTrue(cbor.length < json.length);
+    }
+
+    @Test
+    void toEntity_ShouldPromoteHotMetadataKeysToTypedColumns() {
+        StudySessionEventDTO dto = StudySessionEventDTO.builder()
+                .studentId(1L)
+                .metadata(Map.of("focusLevel", 0.9, "interruptions", 3, "notes", "revisão"))
+                .build();
+
+        StudySessionEvent entity = service.toEntity(dto);
+
+        assertEquals(0.9, entity.getFocusLevel());
+        assertEquals(3, entity.getInterruptions());
+        assertEquals("{\"notes\":\"revisão\"}", entity.getMetadataJson());
+        assertEquals(dto.getMetadata(), service.toDTO(entity).getMetadata());
+
+        StudySessionEventDTO withoutMetadata = service.toDTO(entity, false);
+        assertNull(withoutMetadata.getMetadata());
+        assertEquals(0.9, withoutMetadata.getFocusLevel());
+        assertEquals(3, withoutMetadata.getInterruptions());
+    }
+
+    @Test
+    void processIncomingPayload_ShouldAcceptResendOfEventDroppedOnOverflow() {
+        byte[] payload = "{\"studentId\":1,\"deviceId\":\"iot-1\",\"eventId\":\"e-1\"}".getBytes(StandardCharsets.UTF_8);
+        when(ingestionPipeline.submit(any())).thenReturn(false, true);
+
+        assertTrue(service.processIncomingPayload(payload, TelemetryPayloadFormat.JSON));
+        assertTrue(service.processIncomingPayload(payload, TelemetryPayloadFormat.JSON));
+        assertTrue(service.processIncomingPayload(payload, TelemetryPayloadFormat.JSON));
+
+        // A primeira foi recusada pelo buffer; a reentrega passa, a seguinte já é duplicata
+        verify(ingestionPipeline, times(2)).submit(any());
+    }
+
+    @Test
+    void processIncomingPayload_ShouldRejectJsonSentToCborTopic() {
+        byte[] json = "{\"studentId\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertFalse(service.processIncomingPayload(json, TelemetryPayloadFormat.CBOR));
+        verify(ingestionPipeline, never()).submit(any());
+    }
+
+    @Test
+    void fromTopic_ShouldSelectFormatBySuffix() {
+        assertEquals(TelemetryPayloadFormat.CBOR, TelemetryPayloadFormat.fromTopic("recommendations/topic/cbor"));
+        assertEquals(TelemetryPayloadFormat.JSON, TelemetryPayloadFormat.fromTopic("recommendations/topic"));
+        assertEquals(TelemetryPayloadFormat.JSON, TelemetryPayloadFormat.fromTopic(null));
+    }
+
+    @Test
+    void processIncomingPayload_ShouldDropRedeliveredEvent() {
+        byte[] payload = ("{\"eventId\":\"e-1\",\"deviceId\":\"iot-1\",\"studentId\":1}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(service.processIncomingPayload(payload));
+        assertTrue(service.processIncomingPayload(payload));
+
+        verify(ingestionPipeline, times(1)).submit(any());
+    }
+
+    @Test
+    void processIncomingPayload_ShouldKeepEventsWithoutDedupKey() {
+        byte[] payload = "{\"studentId\":1}".getBytes(StandardCharsets.UTF_8);
+
+        service.processIncomingPayload(payload);
+        service.processIncomingPayload(payload);
+
+        verify(ingestionPipeline, times(2)).submit(any());
+    }
+
+    @Test
+    void saveEvent_ShouldReturnStoredEventOnResend() {
+        StudySessionEventDTO dto = StudySessionEventDTO.builder()
+                .deviceId("iot-1")
+                .studentId(1L)
+                .startTime(OffsetDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneOffset.UTC))
+                .build();
+        StudySessionEvent stored = StudySessionEvent.builder().id(42L).studentId(1L).deviceId("iot-1").build();
+        when(repository.save(any())).thenReturn(stored);
+        when(repository.findByDedupKey(TelemetryDeduplicator.dedupKey(dto))).thenReturn(Optional.of(stored));
+
+        assertEquals(42L, service.saveEvent(dto).getId());
+        assertEquals(42L, service.saveEvent(dto).getId());
+
+        verify(repository, times(1)).save(any());
+        verify(eventPublisher, times(1)).publishEvent(any(TelemetryBatchPersistedEvent.class));
+    }
+
+    @Test
+    void saveEvent_ShouldFallBackToStoredEventOnUniqueViolation() {
+        StudySessionEventDTO dto = StudySessionEventDTO.builder().eventId("e-9").deviceId("iot-2").build();
+        StudySessionEvent stored = StudySessionEvent.builder().id(7L).deviceId("iot-2").build();
+        when(repository.save(any())).thenThrow(new DataIntegrityViolationException("uk_sse_dedup_key"));
+        when(repository.findByDedupKey(TelemetryDeduplicator.dedupKey(dto))).thenReturn(Optional.of(stored));
+
+        assertEquals(7L, service.saveEvent(dto).getId());
+    }
+
+    @Test
+    void dedupKey_ShouldIgnoreOffsetOfSameInstant() {
+        OffsetDateTime start = OffsetDateTime.of(2025, 1, 1, 10, 0, 0, 0, ZoneOffset.ofHours(-3));
+        StudySessionEventDTO local = StudySessionEventDTO.builder().deviceId("iot-1").studentId(1L).startTime(start).build();
+        StudySessionEventDTO utc = StudySessionEventDTO.builder().deviceId("iot-1").studentId(1L)
+                .startTime(start.withOffsetSameInstant(ZoneOffset.UTC)).build();
+
+        assertEquals(TelemetryDeduplicator.dedupKey(local), TelemetryDeduplicator.dedupKey(utc));
+        assertNull(TelemetryDeduplicator.dedupKey(StudySessionEventDTO.builder().studentId(1L).startTime(start).build()));
+    }
+}
@@ -0,0 +1,234 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.TestsApplication;
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.IngestionStatsDTO;
+import io.moquette.broker.Server;
+import io.moquette.broker.config.MemoryConfig;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.eclipse.paho.client.mqttv3.MqttAsyncClient;
+import org.eclipse.paho.client.mqttv3.MqttConnectOptions;
+import org.eclipse.paho.client.mqttv3.MqttException;
+import org.eclipse.paho.client.mqttv3.persist.MemoryPersistence;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Teste de carga ponta a ponta da ingestão: sobe um broker MQTT (Moquette) no
+ * próprio processo, a aplicação apontando para ele e {@code devices} clientes
+ * publicando no tópico dos adapters {@code mqttInbound-*} a {@code rate} eventos/s no total.
+ * Mede a latência publicação → lote gravado (HdrHistogram) e a vazão sustentada.
+ *
+ * <p>O instante de envio gravado no payload é o horário agendado da publicação, não
+ * o real, para que atrasos do próprio gerador também entrem na latência.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.devops.qas.tests.telemetry.service.TelemetryIngestionLoadBenchmark \
+ *     -Dexec.args="100 5000 60"
+ * </pre>
+ * Argumentos: dispositivos, eventos/s no total, duração em segundos. A distribuição
+ * completa é gravada em {@code target/ingestion-latency.hgrm}.
+ */
+public final class TelemetryIngestionLoadBenchmark {
+
+    private static final String TOPIC = "recommendations/topic";
+    private static final int QOS = 1;
+    private static final long DRAIN_TIMEOUT_MS = 30_000;
+    private static final Pattern SENT_AT = Pattern.compile("\"loadTestSentAtNanos\":(-?\\d+)");
+    private static final String[] CATEGORIES = {"DevOps", "Cloud", "Data Science", "Backend", "Frontend"};
+
+    private final ConcurrentHistogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong publishFailures = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong lastPersistNanos = new AtomicLong();
+
+    private TelemetryIngestionLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int devices = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        int rate = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int durationSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        new TelemetryIngestionLoadBenchmark().run(devices, rate, durationSeconds);
+    }
+
+    private void run(int devices, int rate, int durationSeconds) throws Exception {
+        int port = freePort();
+        Server broker = startBroker(port);
+        ConfigurableApplicationContext context = null;
+        List<MqttAsyncClient> clients = new ArrayList<>();
+        ScheduledExecutorService scheduler =
+                Executors.newScheduledThreadPool(Math.min(devices, Runtime.getRuntime().availableProcessors()));
+        try {
+            context = new SpringApplicationBuilder(TestsApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .listeners((ApplicationListener<ApplicationEvent>) event -> {
+                        if (event instanceof PayloadApplicationEvent<?> payloadEvent
+                                && payloadEvent.getPayload() instanceof TelemetryBatchPersistedEvent batch) {
+                            onBatchPersisted(batch);
+                        }
+                    })
+                    .properties(
+                            "mqtt.broker.url=tcp://127.0.0.1:" + port,
+                            "mqtt.topic.recommendations=" + TOPIC,
+                            "mqtt.inbound.topics=" + TOPIC,
+                            "mqtt.qos=" + QOS,
+                            "spring.datasource.url=jdbc:h2:mem:ingestion-load;DB_CLOSE_DELAY=-1",
+                            "spring.jpa.show-sql=false",
+                            "spring.rabbitmq.listener.simple.auto-startup=false",
+                            "logging.level.com.devops.qas.tests=WARN")
+                    .run();
+
+            for (int i = 0; i < devices; i++) {
+                clients.add(connect(port, "load-device-" + i));
+            }
+
+            long periodNanos = TimeUnit.SECONDS.toNanos(1) * devices / rate;
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+            for (int i = 0; i < devices; i++) {
+                MqttAsyncClient client = clients.get(i);
+                long deviceStart = start + periodNanos * i / devices;
+                AtomicLong tick = new AtomicLong();
+                scheduler.scheduleAtFixedRate(() -> {
+                    long intendedAt = deviceStart + tick.getAndIncrement() * periodNanos;
+                    if (intendedAt < end) {
+                        publish(client, intendedAt);
+                    }
+                }, deviceStart - System.nanoTime(), periodNanos, TimeUnit.NANOSECONDS);
+            }
+
+            TimeUnit.NANOSECONDS.sleep(Math.max(0, end - System.nanoTime()));
+            scheduler.shutdownNow();
+            long deadline = System.currentTimeMillis() + DRAIN_TIMEOUT_MS;
+            while (persisted.get() < published.get() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+
+            IngestionStatsDTO stats = context.getBean(TelemetryIngestionPipeline.class).getStats();
+            report(devices, rate, durationSeconds, start, stats);
+        } finally {
+            scheduler.shutdownNow();
+            for (MqttAsyncClient client : clients) {
+                disconnect(client);
+            }
+            if (context != null) {
+                context.close();
+            }
+            broker.stopServer();
+        }
+    }
+
+    private void publish(MqttAsyncClient client, long intendedAt) {
+        String payload = "{\"studentId\":" + (1000 + Math.floorMod(intendedAt, 1000))
+                + ",\"deviceId\":\"" + client.getClientId() + "\""
+                + ",\"category\":\"" + CATEGORIES[Math.floorMod(intendedAt, CATEGORIES.length)] + "\""
+                + ",\"courseName\":\"Kubernetes Hands-on\",\"durationMinutes\":30,\"engagementScore\":0.8"
+                + ",\"metadata\":{\"loadTestSentAtNanos\":" + intendedAt + "}}";
+        try {
+            client.publish(TOPIC, payload.getBytes(StandardCharsets.UTF_8), QOS, false);
+            published.incrementAndGet();
+        } catch (MqttException e) {
+            // Ex.: limite de mensagens em voo do cliente atingido
+            publishFailures.incrementAndGet();
+        }
+    }
+
+    private void onBatchPersisted(TelemetryBatchPersistedEvent event) {
+        for (StudySessionEvent persistedEvent : event.getEvents()) {
+            String metadata = persistedEvent.getMetadataJson();
+            Matcher matcher = metadata == null ? null : SENT_AT.matcher(metadata);
+            if (matcher != null && matcher.find()) {
+                latency.recordValue(Math.max(0, event.getPersistedAtNanos() - Long.parseLong(matcher.group(1))));
+            }
+        }
+        persisted.addAndGet(event.getEvents().size());
+        lastPersistNanos.set(event.getPersistedAtNanos());
+    }
+
+    private void report(int devices, int rate, int durationSeconds, long start, IngestionStatsDTO stats)
+            throws IOException {
+        double elapsedSeconds = (lastPersistNanos.get() - start) / 1e9;
+        Histogram snapshot = latency.copy();
+
+        System.out.printf("%d dispositivos, alvo %,d eventos/s por %d s%n", devices, rate, durationSeconds);
+        System.out.printf("publicados %,d (falhas %,d), gravados %,d, descartados no buffer %,d, falhas de gravação %,d%n",
+                published.get(), publishFailures.get(), persisted.get(), stats.getOverflowed(), stats.getFailed());
+        System.out.printf("vazão sustentada: %,.0f eventos/s em %d lotes%n",
+                elapsedSeconds > 0 ? persisted.get() / elapsedSeconds : 0, stats.getBatches());
+        System.out.printf("latência publicação → gravação (ms): p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f%n",
+                millis(snapshot.getValueAtPercentile(50)), millis(snapshot.getValueAtPercentile(90)),
+                millis(snapshot.getValueAtPercentile(99)), millis(snapshot.getValueAtPercentile(99.9)),
+                millis(snapshot.getMaxValue()));
+
+        Path output = Path.of("target", "ingestion-latency.hgrm");
+        Files.createDirectories(output.getParent());
+        try (PrintStream out = new PrintStream(new FileOutputStream(output.toFile()), false, StandardCharsets.UTF_8)) {
+            snapshot.outputPercentileDistribution(out, 1_000_000.0);
+        }
+        System.out.println("distribuição completa em " + output.toAbsolutePath());
+    }
+
+    private static Server startBroker(int port) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("host", "127.0.0.1");
+        properties.setProperty("port", String.valueOf(port));
+        properties.setProperty("allow_anonymous", "true");
+        properties.setProperty("persistence_enabled", "false");
+        Server broker = new Server();
+        broker.startServer(new MemoryConfig(properties));
+        return broker;
+    }
+
+    private static MqttAsyncClient connect(int port, String clientId) throws MqttException {
+        MqttAsyncClient client = new MqttAsyncClient("tcp://127.0.0.1:" + port, clientId, new MemoryPersistence());
+        MqttConnectOptions options = new MqttConnectOptions();
+        options.setCleanSession(true);
+        options.setMaxInflight(1_000);
+        client.connect(options).waitForCompletion();
+        return client;
+    }
+
+    private static void disconnect(MqttAsyncClient client) {
+        try {
+            client.disconnect().waitForCompletion();
+            client.close();
+        } catch (MqttException e) {
+            // Encerramento do teste; nada a fazer
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
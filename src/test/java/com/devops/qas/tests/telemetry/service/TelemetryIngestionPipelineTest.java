@@ -0,0 +1,135 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.IngestionStatsDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionEventBatchRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryIngestionPipelineTest {
+
+    @Mock
+    private StudySessionEventBatchRepository batchRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TelemetryDeduplicator deduplicator = new TelemetryDeduplicator(meterRegistry, 10, 1000);
+
+    private StudySessionEvent event(long studentId) {
+        return StudySessionEvent.builder().studentId(studentId).courseName("Course").build();
+    }
+
+    @Test
+    void submit_ShouldRejectWhenBufferIsFull() {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 2, 10, 1000, 1);
+
+        assertTrue(pipeline.submit(event(1L)));
+        assertTrue(pipeline.submit(event(2L)));
+        assertFalse(pipeline.submit(event(3L)));
+
+        IngestionStatsDTO stats = pipeline.getStats();
+        assertEquals(2, stats.getAccepted());
+        assertEquals(1, stats.getOverflowed());
+        assertEquals(2, stats.getBufferSize());
+    }
+
+    @Test
+    void stop_ShouldFlushPendingEventsInBatches() throws InterruptedException {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 100, 3, 60_000, 1);
+        when(batchRepository.insertAll(anyList())).thenAnswer(inv -> List.copyOf(inv.<List<StudySessionEvent>>getArgument(0)));
+        for (long i = 0; i < 7; i++) {
+            pipeline.submit(event(i));
+        }
+
+        pipeline.start();
+        pipeline.stop();
+
+        verify(batchRepository, atLeast(3)).insertAll(anyList());
+        assertEquals(7, pipeline.getStats().getPersisted());
+        assertEquals(0, pipeline.getStats().getBufferSize());
+    }
+
+    @Test
+    void flush_ShouldCountFailedEvents() {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 10, 10, 1000, 1);
+        when(batchRepository.insertAll(anyList())).thenThrow(new IllegalStateException("db down"));
+
+        List<StudySessionEvent> batch = new ArrayList<>(List.of(event(1L), event(2L)));
+        pipeline.flush(batch);
+
+        assertEquals(2, pipeline.getStats().getFailed());
+        assertTrue(batch.isEmpty());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void flush_ShouldReleaseDedupKeysOfFailedBatch() {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 10, 10, 1000, 1);
+        when(batchRepository.insertAll(anyList())).thenThrow(new IllegalStateException("db down"));
+        StudySessionEvent event = event(1L);
+        event.setDedupKey("k1");
+        assertTrue(deduplicator.markIfNew("k1"));
+
+        pipeline.flush(new ArrayList<>(List.of(event)));
+
+        assertTrue(deduplicator.markIfNew("k1"));
+    }
+
+    @Test
+    void flush_ShouldPublishPersistedBatch() {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 10, 10, 1000, 1);
+        StudySessionEvent first = event(1L);
+        StudySessionEvent second = event(2L);
+        when(batchRepository.insertAll(anyList())).thenReturn(List.of(first, second));
+
+        pipeline.flush(new ArrayList<>(List.of(first, second)));
+
+        ArgumentCaptor<TelemetryBatchPersistedEvent> published = ArgumentCaptor.forClass(TelemetryBatchPersistedEvent.class);
+        verify(eventPublisher).publishEvent(published.capture());
+        assertEquals(List.of(first, second), published.getValue().getEvents());
+        assertEquals(1, meterRegistry.get("telemetry.ingestion.persist").tag("outcome", "success").timer().count());
+        assertEquals(2.0, meterRegistry.get("telemetry.ingestion.events").tag("state", "persisted").functionCounter().count());
+    }
+
+    @Test
+    void flush_ShouldCountRowsAlreadyStoredAsDuplicates() {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 10, 10, 1000, 1);
+        StudySessionEvent fresh = event(1L);
+        when(batchRepository.insertAll(anyList())).thenReturn(List.of(fresh));
+
+        pipeline.flush(new ArrayList<>(List.of(fresh, event(2L), event(3L))));
+
+        assertEquals(1, pipeline.getStats().getPersisted());
+        assertEquals(2, pipeline.getStats().getDuplicates());
+        ArgumentCaptor<TelemetryBatchPersistedEvent> published = ArgumentCaptor.forClass(TelemetryBatchPersistedEvent.class);
+        verify(eventPublisher).publishEvent(published.capture());
+        assertEquals(List.of(fresh), published.getValue().getEvents());
+    }
+
+    @Test
+    void flush_ShouldNotPublishBatchOfDuplicates() {
+        TelemetryIngestionPipeline pipeline = new TelemetryIngestionPipeline(batchRepository, eventPublisher, deduplicator, meterRegistry, null, 10, 10, 1000, 1);
+        when(batchRepository.insertAll(anyList())).thenReturn(List.of());
+
+        // Replay do spool ou reentrega QoS 1 de eventos já gravados
+        pipeline.flush(new ArrayList<>(List.of(event(1L), event(2L))));
+
+        assertEquals(2, pipeline.getStats().getDuplicates());
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,79 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.StudySessionEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryLiveFeedTest {
+
+    @Mock
+    private TelemetryEventService telemetryEventService;
+
+    private TelemetryLiveFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new TelemetryLiveFeed(telemetryEventService, new ObjectMapper().findAndRegisterModules(),
+                new SimpleMeterRegistry(), 2, 16, 1, 60_000, 5_000);
+        feed.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.stop();
+    }
+
+    private TelemetryBatchPersistedEvent batch(StudySessionEvent... events) {
+        return new TelemetryBatchPersistedEvent(List.of(events), System.nanoTime());
+    }
+
+    @Test
+    void subscribe_ShouldRejectAboveLimit() {
+        feed.subscribe(null, null);
+        feed.subscribe(1L, null);
+
+        assertThrows(TelemetryFeedFullException.class, () -> feed.subscribe(null, "DevOps"));
+        assertEquals(2, feed.subscriberCount());
+    }
+
+    @Test
+    void onBatchPersisted_ShouldSerializeOnlyEventsMatchingSomeSubscriber() {
+        StudySessionEvent devOps = StudySessionEvent.builder().studentId(1L).category("DevOps").build();
+        StudySessionEvent cloud = StudySessionEvent.builder().studentId(2L).category("Cloud").build();
+        when(telemetryEventService.toDTO(any())).thenReturn(StudySessionEventDTO.builder().studentId(1L).build());
+        feed.subscribe(null, "DevOps");
+        feed.subscribe(1L, null);
+
+        feed.onBatchPersisted(batch(devOps, cloud));
+
+        // Serializado uma vez para os dois assinantes; o evento de Cloud não interessa a ninguém
+        verify(telemetryEventService, times(1)).toDTO(devOps);
+        verify(telemetryEventService, never()).toDTO(cloud);
+    }
+
+    @Test
+    void onBatchPersisted_ShouldMatchCategoryIgnoringCase() {
+        StudySessionEvent devOps = StudySessionEvent.builder().studentId(1L).category("DevOps").build();
+        when(telemetryEventService.toDTO(any())).thenReturn(StudySessionEventDTO.builder().studentId(1L).build());
+        feed.subscribe(null, "devops");
+
+        feed.onBatchPersisted(batch(devOps));
+
+        // Mesma regra da listagem, que compara category_lower
+        verify(telemetryEventService).toDTO(devOps);
+    }
+}
@@ -0,0 +1,96 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.dto.TelemetryRetentionResultDTO;
+import com.devops.qas.tests.telemetry.repository.StudySessionRollupRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TelemetryRetentionServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2024-02-10T03:30:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private StudySessionRollupRepository rollupRepository;
+
+    private TelemetryRetentionService service(int rawDays) {
+        return new TelemetryRetentionService(rollupRepository, new SimpleMeterRegistry(), true, rawDays, 100, CLOCK);
+    }
+
+    @Test
+    void run_ShouldRollUpClosedDaysFromOldestEventAndPurgeOutsideRetention() {
+        when(rollupRepository.findRolledUpUntil()).thenReturn(Optional.empty());
+        when(rollupRepository.findOldestReceivedAt())
+                .thenReturn(Optional.of(OffsetDateTime.parse("2024-02-07T23:00:00-03:00")));
+        when(rollupRepository.rollUpDay(any())).thenReturn(2);
+        when(rollupRepository.deleteRawBefore(any(), eq(100))).thenReturn(100, 40);
+
+        TelemetryRetentionResultDTO result = service(1).run().orElseThrow();
+
+        // 2024-02-08 (UTC) e 2024-02-09; o dia corrente fica nos eventos brutos
+        verify(rollupRepository).rollUpDay(LocalDate.parse("2024-02-08"));
+        verify(rollupRepository).rollUpDay(LocalDate.parse("2024-02-09"));
+        verify(rollupRepository, times(2)).rollUpDay(any());
+        verify(rollupRepository, times(2)).deleteRawBefore(OffsetDateTime.parse("2024-02-09T00:00:00Z"), 100);
+        assertEquals(2, result.getDaysRolledUp());
+        assertEquals(4, result.getRollupRowsCreated());
+        assertEquals(140, result.getRawEventsDeleted());
+        assertEquals(LocalDate.parse("2024-02-10"), result.getRolledUpUntil());
+    }
+
+    @Test
+    void run_ShouldNotPurgeDaysNotYetRolledUp() {
+        when(rollupRepository.findRolledUpUntil()).thenReturn(Optional.empty());
+        when(rollupRepository.findOldestReceivedAt())
+                .thenReturn(Optional.of(OffsetDateTime.parse("2024-02-10T01:00:00Z")));
+
+        TelemetryRetentionResultDTO result = service(0).run().orElseThrow();
+
+        verify(rollupRepository, never()).rollUpDay(any());
+        verify(rollupRepository, never()).rollUpLate(any());
+        verify(rollupRepository, never()).deleteRawBefore(any(), anyInt());
+        assertNull(result.getRolledUpUntil());
+    }
+
+    @Test
+    void run_ShouldRollUpLateEventsBeforePurging() {
+        when(rollupRepository.findRolledUpUntil()).thenReturn(Optional.of(LocalDate.parse("2024-02-10")));
+        when(rollupRepository.findOldestReceivedAt())
+                .thenReturn(Optional.of(OffsetDateTime.parse("2024-01-01T10:00:00Z")));
+        when(rollupRepository.rollUpLate(any())).thenReturn(3);
+
+        TelemetryRetentionResultDTO result = service(1).run().orElseThrow();
+
+        // Evento com receivedAt num dia já resumido entra nos resumos antes de o dia ser apagado
+        InOrder inOrder = inOrder(rollupRepository);
+        inOrder.verify(rollupRepository).rollUpLate(LocalDate.parse("2024-02-10"));
+        inOrder.verify(rollupRepository).deleteRawBefore(OffsetDateTime.parse("2024-02-09T00:00:00Z"), 100);
+        verify(rollupRepository, never()).rollUpDay(any());
+        assertEquals(3, result.getRollupRowsCreated());
+    }
+
+    @Test
+    void findDaily_ShouldIncludeLastDay() {
+        service(90).findDaily(1L, "DevOps", LocalDate.parse("2024-01-01"), LocalDate.parse("2024-02-10"));
+
+        verify(rollupRepository).findDaily(1L, "DevOps", LocalDate.parse("2024-01-01"),
+                LocalDate.parse("2024-02-11"));
+    }
+}
@@ -0,0 +1,86 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetrySpoolTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    private TelemetrySpool open() throws Exception {
+        return new TelemetrySpool(objectMapper, new SimpleMeterRegistry(), directory.toString(), 1, 4);
+    }
+
+    private StudySessionEvent event(long studentId) {
+        return StudySessionEvent.builder().studentId(studentId).courseName("Course").build();
+    }
+
+    private List<Long> studentIds(TelemetrySpool.Batch batch) {
+        return batch.getEvents().stream().map(StudySessionEvent::getStudentId).toList();
+    }
+
+    @Test
+    void poll_ShouldReturnEventsInOrderUntilCommitted() throws Exception {
+        TelemetrySpool spool = open();
+        for (long i = 1; i <= 3; i++) {
+            assertTrue(spool.append(event(i)));
+        }
+
+        TelemetrySpool.Batch batch = spool.poll(2, 10);
+        assertEquals(List.of(1L, 2L), studentIds(batch));
+        assertEquals(3, spool.depth());
+
+        spool.commit(batch);
+        assertEquals(1, spool.depth());
+        assertEquals(List.of(3L), studentIds(spool.poll(10, 10)));
+        spool.close();
+    }
+
+    @Test
+    void reopen_ShouldReplayEventsNotCommitted() throws Exception {
+        TelemetrySpool spool = open();
+        for (long i = 1; i <= 4; i++) {
+            spool.append(event(i));
+        }
+        spool.commit(spool.poll(1, 10));
+        spool.poll(10, 10);
+        spool.close();
+
+        TelemetrySpool reopened = open();
+        assertEquals(3, reopened.depth());
+        assertEquals(List.of(2L, 3L, 4L), studentIds(reopened.poll(10, 10)));
+        reopened.close();
+    }
+
+    @Test
+    void append_ShouldRollSegmentsAndRejectWhenFull() throws Exception {
+        TelemetrySpool spool = open();
+        StudySessionEvent large = event(1L);
+        large.setMetadataJson("x".repeat(200_000));
+
+        int appended = 0;
+        while (spool.append(large)) {
+            appended++;
+        }
+        assertTrue(appended >= 4, "esperava ao menos um evento por segmento");
+        assertEquals(appended, spool.depth());
+
+        TelemetrySpool.Batch batch = spool.poll(appended, 10);
+        assertEquals(appended, batch.getEvents().size());
+        spool.commit(batch);
+        assertEquals(0, spool.depth());
+        assertTrue(spool.append(large));
+        spool.close();
+    }
+}
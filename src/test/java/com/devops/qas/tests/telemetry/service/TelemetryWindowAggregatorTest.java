@@ -0,0 +1,108 @@
+package com.devops.qas.tests.telemetry.service;
+
+import com.devops.qas.tests.telemetry.domain.entity.StudySessionEvent;
+import com.devops.qas.tests.telemetry.dto.EngagementWindowDTO;
+import com.devops.qas.tests.telemetry.service.TelemetryWindowAggregator.GroupBy;
+import com.devops.qas.tests.telemetry.service.TelemetryWindowAggregator.Mode;
+import com.devops.qas.tests.telemetry.service.TelemetryWindowAggregator.Window;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryWindowAggregatorTest {
+
+    private static final long MINUTE = 60_000;
+    // 10:00:30 UTC
+    private static final long START = Instant.parse("2024-02-01T10:00:30Z").toEpochMilli();
+
+    private final AtomicLong now = new AtomicLong(START);
+    private final AtomicLong ids = new AtomicLong();
+    private final TelemetryWindowAggregator aggregator =
+            new TelemetryWindowAggregator(new SimpleMeterRegistry(), 100, now::get);
+
+    private StudySessionEvent event(long studentId, String category, int duration, double engagement) {
+        return StudySessionEvent.builder()
+                .id(ids.incrementAndGet())
+                .studentId(studentId)
+                .category(category)
+                .courseName("Course " + category)
+                .durationMinutes(duration)
+                .engagementScore(engagement)
+                .receivedAt(OffsetDateTime.ofInstant(Instant.ofEpochMilli(now.get()), ZoneOffset.UTC))
+                .build();
+    }
+
+    @Test
+    void snapshot_ShouldAggregateSlidingWindowPerCategory() {
+        aggregator.record(event(1L, "DevOps", 30, 0.8));
+        aggregator.record(event(2L, "DevOps", 10, 0.4));
+        aggregator.record(event(3L, "Cloud", 20, 0.5));
+
+        List<EngagementWindowDTO> windows = aggregator.snapshot(GroupBy.CATEGORY, Window.ONE_MINUTE, Mode.SLIDING, null, 10);
+
+        assertEquals(2, windows.size());
+        EngagementWindowDTO devOps = windows.get(0);
+        assertEquals("DevOps", devOps.getKey());
+        assertEquals(2, devOps.getSessions());
+        assertEquals(40, devOps.getTotalDurationMinutes());
+        assertEquals(0.6, devOps.getAverageEngagement(), 1e-9);
+        assertTrue(devOps.getP50Engagement() >= 0.4 && devOps.getP50Engagement() <= 0.45);
+        assertTrue(devOps.getP99Engagement() >= 0.8 && devOps.getP99Engagement() <= 0.85);
+    }
+
+    @Test
+    void snapshot_ShouldDropMinutesOutsideSlidingWindow() {
+        aggregator.record(event(1L, "DevOps", 30, 0.8));
+        now.addAndGet(5 * MINUTE);
+        aggregator.record(event(1L, "DevOps", 15, 0.6));
+
+        assertEquals(1, aggregator.snapshot(GroupBy.STUDENT, Window.ONE_MINUTE, Mode.SLIDING, "1", 10).get(0).getSessions());
+        assertEquals(2, aggregator.snapshot(GroupBy.STUDENT, Window.FIFTEEN_MINUTES, Mode.SLIDING, "1", 10).get(0).getSessions());
+        assertTrue(aggregator.snapshot(GroupBy.STUDENT, Window.ONE_MINUTE, Mode.SLIDING, "2", 10).isEmpty());
+    }
+
+    @Test
+    void snapshot_ShouldReturnLastClosedTumblingWindow() {
+        aggregator.record(event(1L, "DevOps", 30, 0.8));
+        assertTrue(aggregator.snapshot(GroupBy.COURSE, Window.FIFTEEN_MINUTES, Mode.TUMBLING, null, 10).isEmpty());
+
+        now.addAndGet(15 * MINUTE);
+        aggregator.record(event(2L, "DevOps", 10, 0.4));
+
+        List<EngagementWindowDTO> windows = aggregator.snapshot(GroupBy.COURSE, Window.FIFTEEN_MINUTES, Mode.TUMBLING, null, 10);
+        assertEquals(1, windows.size());
+        assertEquals(1, windows.get(0).getSessions());
+        assertEquals(Instant.parse("2024-02-01T10:00:00Z"), windows.get(0).getWindowStart());
+        assertEquals(Instant.parse("2024-02-01T10:15:00Z"), windows.get(0).getWindowEnd());
+    }
+
+    @Test
+    void record_ShouldIgnoreEventsOlderThanRetention() {
+        StudySessionEvent old = event(1L, "DevOps", 30, 0.8);
+        old.setReceivedAt(old.getReceivedAt().minusHours(3));
+
+        aggregator.record(old);
+
+        assertTrue(aggregator.snapshot(GroupBy.CATEGORY, Window.ONE_HOUR, Mode.SLIDING, null, 10).isEmpty());
+    }
+
+    @Test
+    void onBatchPersisted_ShouldIgnoreEventsThatWereNotInserted() {
+        StudySessionEvent duplicate = event(1L, "DevOps", 30, 0.8);
+        duplicate.setId(null);
+
+        aggregator.onBatchPersisted(new TelemetryBatchPersistedEvent(
+                List.of(event(2L, "DevOps", 10, 0.4), duplicate), System.nanoTime()));
+
+        List<EngagementWindowDTO> windows = aggregator.snapshot(GroupBy.CATEGORY, Window.ONE_MINUTE, Mode.SLIDING, null, 10);
+        assertEquals(1, windows.get(0).getSessions());
+        assertEquals(10, windows.get(0).getTotalDurationMinutes());
+    }
+}